@@ -0,0 +1,35 @@
+package com.example.kitchensink.config;
+
+import com.example.kitchensink.security.UserDetailsServiceImpl;
+import com.example.kitchensink.service.MemberCache;
+import com.example.kitchensink.service.MemberPageCache;
+import com.example.kitchensink.service.TokenGenerationService;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size for sizing
+    @Bean
+    public MeterBinder userDetailsCacheMetrics(UserDetailsServiceImpl userDetailsService) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, userDetailsService.getCache(), "userDetails");
+    }
+
+    @Bean
+    public MeterBinder memberCacheMetrics(MemberCache memberCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, memberCache.getCache(), "members");
+    }
+
+    @Bean
+    public MeterBinder memberPageCacheMetrics(MemberPageCache memberPageCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, memberPageCache.getCache(), "memberPages");
+    }
+
+    @Bean
+    public MeterBinder tokenGenerationCacheMetrics(TokenGenerationService tokenGenerationService) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, tokenGenerationService.getCache(), "tokenGenerations");
+    }
+}
@@ -1,19 +1,67 @@
 package com.example.kitchensink.config;
 
+import com.example.kitchensink.model.Member;
+import com.example.kitchensink.model.RefreshToken;
+import com.example.kitchensink.model.RevokedToken;
 import com.example.kitchensink.model.User;
 import com.mongodb.client.MongoClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.EventListener;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
 import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.domain.Sort;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MongoConfig {
-    
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
+    @Value("${app.mongoMaxPoolSize:0}")
+    private int maxPoolSize = 0;
+
+    @Value("${app.virtualThreads:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.virtualThreadMaxConcurrentRequests:1000}")
+    private int virtualThreadMaxConcurrentRequests = 1000;
+
+    @Value("${app.mongoMaxConnecting:2}")
+    private int maxConnecting = 2;
+
+    /**
+     * Keeps the driver's pool size (100 per server) unless {@code app.mongoMaxPoolSize} is
+     * set. Every node opens up to that many connections to each server, so the pool is capped
+     * on its own rather than following the request concurrency: nodes times pool size must
+     * stay within what the server accepts. On virtual threads, requests admitted by
+     * {@link VirtualThreadConfig} beyond the pool size wait in the driver's queue, which
+     * {@code app.virtualThreadMaxConcurrentRequests} bounds.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer() {
+        if (virtualThreads && maxPoolSize <= 0) {
+            logger.info("Mongo connection pool keeps the driver default; up to {} admitted requests "
+                + "may queue for a connection", virtualThreadMaxConcurrentRequests);
+        }
+        return builder -> builder.applyToConnectionPoolSettings(pool -> {
+            if (maxPoolSize > 0) {
+                pool.maxSize(maxPoolSize);
+            }
+            pool.maxConnecting(maxConnecting);
+        });
+    }
+
     @Bean
     public MongoTemplate mongoTemplate(MongoClient mongoClient) {
         return new MongoTemplate(mongoClient, "KitchenSink_DB");
@@ -36,5 +84,87 @@ public class MongoConfig {
             .on("email", Sort.Direction.ASC)
             .unique();
         indexOps.ensureIndex(emailIndex);
+
+        IndexOperations memberIndexOps = mongoTemplate.indexOps(Member.class);
+
+        // Member listing sorts on one of these fields with _id as tie-break, and keyset
+        // pages seek on the same pair
+        for (String sortField : new String[] {"name", "email", "phoneNumber"}) {
+            memberIndexOps.ensureIndex(new Index()
+                .on(sortField, Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .named(sortField + "_id"));
+        }
+
+        // Backs the email uniqueness check; the validator alone races with concurrent creates
+        try {
+            memberIndexOps.ensureIndex(new Index()
+                .on("email", Sort.Direction.ASC)
+                .unique()
+                .named("email_unique"));
+        } catch (DataAccessException e) {
+            logger.error("Unique index on members.email not created, remove duplicate emails and restart: {}",
+                e.getMessage());
+        }
+
+        IndexOperations refreshTokenIndexOps = mongoTemplate.indexOps(RefreshToken.class);
+
+        // Named as the entity annotations that used to declare them named them, so
+        // databases that already have these indexes see no conflicting definition
+
+        // Refresh and logout look tokens up by value
+        Index tokenIndex = new Index()
+            .on("token", Sort.Direction.ASC)
+            .unique()
+            .named("token");
+        refreshTokenIndexOps.ensureIndex(tokenIndex);
+
+        // Revoke-all and the per-user device cap look sessions up by user, newest first
+        Index userSessionsIndex = new Index()
+            .on("userId", Sort.Direction.ASC)
+            .on("createdAt", Sort.Direction.DESC)
+            .named("userId_createdAt");
+        refreshTokenIndexOps.ensureIndex(userSessionsIndex);
+        dropLegacyUserIdIndex(refreshTokenIndexOps);
+
+        // TTL index so expired tokens are removed by Mongo instead of piling up
+        Index expiryIndex = new Index()
+            .on("expiryDate", Sort.Direction.ASC)
+            .expire(0, TimeUnit.SECONDS)
+            .named("expiryDate");
+        refreshTokenIndexOps.ensureIndex(expiryIndex);
+
+        IndexOperations revokedTokenIndexOps = mongoTemplate.indexOps(RevokedToken.class);
+
+        // Named as the entity annotations that used to declare them named them, as above
+
+        // Revocations are only needed until the access token would have expired
+        revokedTokenIndexOps.ensureIndex(new Index()
+            .on("expiresAt", Sort.Direction.ASC)
+            .expire(0, TimeUnit.SECONDS)
+            .named("expiresAt"));
+
+        // Nodes without change streams poll for recent revocations
+        revokedTokenIndexOps.ensureIndex(new Index()
+            .on("revokedAt", Sort.Direction.ASC)
+            .named("revokedAt"));
+    }
+
+    /**
+     * Drops the single-field index on refresh_tokens.userId that older versions
+     * created; userId_createdAt serves the same lookups.
+     */
+    private static void dropLegacyUserIdIndex(IndexOperations refreshTokenIndexOps) {
+        try {
+            for (IndexInfo index : refreshTokenIndexOps.getIndexInfo()) {
+                List<IndexField> fields = index.getIndexFields();
+                if (fields.size() == 1 && "userId".equals(fields.get(0).getKey())) {
+                    refreshTokenIndexOps.dropIndex(index.getName());
+                    logger.info("Dropped legacy index {} on refresh_tokens", index.getName());
+                }
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Legacy index on refresh_tokens.userId not dropped: {}", e.getMessage());
+        }
     }
 }
@@ -1,9 +1,18 @@
 package com.example.kitchensink.config;
 
+import com.example.kitchensink.filter.AuthRateLimitFilter;
 import com.example.kitchensink.security.AuthEntryPointJwt;
 import com.example.kitchensink.security.AuthTokenFilter;
+import com.example.kitchensink.security.BoundedPasswordEncoder;
+import com.example.kitchensink.security.PasswordEncoderCalibrator;
+import com.example.kitchensink.security.PasswordHashingExecutor;
+import com.example.kitchensink.security.RehashingAuthenticationProvider;
+import com.example.kitchensink.security.TokenBucketRateLimiter;
 import com.example.kitchensink.security.UserDetailsServiceImpl;
+import com.example.kitchensink.service.PasswordUpgradeService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,13 +23,18 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -32,16 +46,67 @@ public class SecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Value("${app.passwordHashThreads:0}")
+    private int passwordHashThreads;
+
+    @Value("${app.passwordHashQueueCapacity:64}")
+    private int passwordHashQueueCapacity;
+
+    @Value("${app.passwordHashRetryAfterSeconds:1}")
+    private long passwordHashRetryAfterSeconds;
+
+    @Value("${app.passwordEncoder:bcrypt}")
+    private String passwordEncoderId;
+
+    @Value("${app.passwordHashTargetMs:0}")
+    private long passwordHashTargetMs;
+
+    @Value("${app.passwordHashMinBcryptStrength:10}")
+    private int passwordHashMinBcryptStrength;
+
+    @Value("${app.passwordHashMaxBcryptStrength:16}")
+    private int passwordHashMaxBcryptStrength;
+
+    @Value("${app.authRateLimitIpCapacity:20}")
+    private int authRateLimitIpCapacity;
+
+    @Value("${app.authRateLimitIpPerMinute:60}")
+    private double authRateLimitIpPerMinute;
+
+    @Value("${app.authRateLimitUsernameCapacity:5}")
+    private int authRateLimitUsernameCapacity;
+
+    @Value("${app.authRateLimitUsernamePerMinute:5}")
+    private double authRateLimitUsernamePerMinute;
+
+    @Value("${app.authRateLimitIdleEvictionMs:600000}")
+    private long authRateLimitIdleEvictionMs;
+
+    @Value("${app.authRateLimitMaxKeys:100000}")
+    private int authRateLimitMaxKeys;
+
+    @Bean
+    public AuthRateLimitFilter authRateLimitFilter(MeterRegistry meterRegistry) {
+        Duration idleTimeout = Duration.ofMillis(authRateLimitIdleEvictionMs);
+        return new AuthRateLimitFilter(
+                new TokenBucketRateLimiter(authRateLimitIpCapacity, authRateLimitIpPerMinute / 60,
+                        idleTimeout, authRateLimitMaxKeys),
+                new TokenBucketRateLimiter(authRateLimitUsernameCapacity, authRateLimitUsernamePerMinute / 60,
+                        idleTimeout, authRateLimitMaxKeys),
+                meterRegistry);
+    }
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder,
+                                                           PasswordUpgradeService passwordUpgradeService) {
+        DaoAuthenticationProvider authProvider = new RehashingAuthenticationProvider(passwordUpgradeService);
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -50,18 +115,42 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    @Bean(destroyMethod = "shutdown")
+    public PasswordHashingExecutor passwordHashingExecutor(MeterRegistry meterRegistry) {
+        // Default to half the cores so hashing bursts leave room for regular requests
+        int threads = passwordHashThreads > 0
+                ? passwordHashThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new PasswordHashingExecutor(threads, passwordHashQueueCapacity,
+                passwordHashRetryAfterSeconds, meterRegistry);
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor) {
+        // A target of 0 keeps the fixed minimum strength and skips calibration
+        int bcryptStrength = passwordHashTargetMs > 0
+                ? PasswordEncoderCalibrator.calibrateBcryptStrength(passwordHashTargetMs,
+                        passwordHashMinBcryptStrength, passwordHashMaxBcryptStrength)
+                : passwordHashMinBcryptStrength;
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        // New hashes are written as {id}hash; existing unprefixed hashes are plain BCrypt
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(passwordEncoderId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(bcryptStrength));
+        return new BoundedPasswordEncoder(delegating, passwordHashingExecutor);
     }
 
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With",
+                "If-Match", "If-None-Match", "Last-Event-ID"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "ETag"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -71,7 +160,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider,
+                                           AuthRateLimitFilter authRateLimitFilter) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
@@ -85,8 +175,10 @@ public class SecurityConfig {
                     .anyRequest().authenticated()
             );
 
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Throttle before any token parsing, user lookup or password hashing happens
+        http.addFilterBefore(authRateLimitFilter, AuthTokenFilter.class);
         
         return http.build();
     }
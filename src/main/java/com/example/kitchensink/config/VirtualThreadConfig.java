@@ -0,0 +1,70 @@
+package com.example.kitchensink.config;
+
+import com.example.kitchensink.filter.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling and {@code @Async} work on virtual threads when
+ * {@code app.virtualThreads=true}. A request blocked on Mongo then parks instead of
+ * holding one of the {@code server.tomcat.threads.max} workers, and threads.max no
+ * longer limits anything. {@code app.virtualThreadMaxConcurrentRequests} takes its
+ * place: requests beyond it get 503 before any work is done. The Mongo pool is
+ * capped separately (see {@link MongoConfig}), so admitted requests beyond it
+ * wait there for a connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.virtualThreads", havingValue = "true")
+public class VirtualThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Value("${app.virtualThreadPinnedThresholdMs:20}")
+    private long pinnedThresholdMs = 20;
+
+    @Value("${app.virtualThreadMaxConcurrentRequests:1000}")
+    private int maxConcurrentRequests = 1000;
+
+    @Value("${app.virtualThreadRetryAfterSeconds:1}")
+    private long retryAfterSeconds = 1;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        logger.info("Serving requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory()));
+    }
+
+    // Replaces the pooled executor Boot would create for @Async and MVC async requests
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("async-vt-", 0).factory()));
+    }
+
+    // Ahead of the security chain, so a shed request costs no token verification
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(maxConcurrentRequests, retryAfterSeconds, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(pinnedThresholdMs, meterRegistry);
+    }
+}
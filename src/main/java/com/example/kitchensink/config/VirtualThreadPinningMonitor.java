@@ -0,0 +1,93 @@
+package com.example.kitchensink.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier, typically
+ * inside a synchronized block or a native frame. A pinned thread holds one of
+ * the few carrier threads for the whole wait, so a pinned path taken by many
+ * requests at once stalls every other virtual thread.
+ * <p>
+ * Listens for the JFR {@code jdk.VirtualThreadPinned} event, counts each one in
+ * {@code jvm.threads.virtual.pinned} and logs the top of its stack the first
+ * time that stack is seen.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Counter pinned;
+    // Stacks already logged; a hot pinned path would otherwise log on every request
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(long thresholdMs, MeterRegistry registry) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads that blocked while pinned for longer than the threshold")
+            .register(registry);
+    }
+
+    public void start() {
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.startAsync();
+            stream = recording;
+            logger.info("Reporting virtual threads pinned for more than {} ms", threshold.toMillis());
+        } catch (Exception | LinkageError e) {
+            // JFR may be missing from a trimmed runtime; pinning then goes unreported
+            logger.warn("Virtual thread pinning is not monitored: {}", e.getMessage());
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinned.increment();
+        String stack = describe(event.getStackTrace());
+        if (reportedStacks.add(stack)) {
+            logger.warn("Virtual thread pinned for {} ms:\n{}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    public double pinnedCount() {
+        return pinned.count();
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+            .limit(LOGGED_FRAMES)
+            .map(VirtualThreadPinningMonitor::describe)
+            .collect(Collectors.joining("\n"));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + (frame.getLineNumber() >= 0 ? ":" + frame.getLineNumber() : "");
+    }
+}
@@ -5,26 +5,29 @@ import com.example.kitchensink.dto.LoginRequest;
 import com.example.kitchensink.dto.RegisterRequest;
 import com.example.kitchensink.dto.TokenRefreshRequest;
 import com.example.kitchensink.dto.TokenRefreshResponse;
-import com.example.kitchensink.model.Role;
+import com.example.kitchensink.exception.TokenRefreshException;
 import com.example.kitchensink.model.User;
 import com.example.kitchensink.model.RefreshToken;
-import com.example.kitchensink.repository.UserRepository;
 import com.example.kitchensink.security.JwtUtils;
+import com.example.kitchensink.security.TokenRevocationList;
 import com.example.kitchensink.security.UserDetailsImpl;
 import com.example.kitchensink.service.RefreshTokenService;
+import com.example.kitchensink.service.TokenGenerationService;
+import com.example.kitchensink.service.UserRegistrationService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -46,16 +49,19 @@ public class AuthController {
     AuthenticationManager authenticationManager;
 
     @Autowired
-    UserRepository userRepository;
+    JwtUtils jwtUtils;
 
     @Autowired
-    PasswordEncoder encoder;
+    RefreshTokenService refreshTokenService;
 
     @Autowired
-    JwtUtils jwtUtils;
+    TokenGenerationService tokenGenerationService;
 
     @Autowired
-    RefreshTokenService refreshTokenService;
+    TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    UserRegistrationService userRegistrationService;
 
     @Operation(
         summary = "Login user", 
@@ -78,8 +84,9 @@ public class AuthController {
             
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
             
-            // Create refresh token
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(userDetails.getId());
+            // Open a refresh session for this device
+            RefreshToken refreshToken = refreshTokenService.createRefreshToken(
+                userDetails.getId(), loginRequest.getDeviceName());
             
             Set<String> roles = userDetails.getAuthorities().stream()
                     .map(item -> item.getAuthority())
@@ -99,28 +106,15 @@ public class AuthController {
         summary = "Register new user",
         security = {}
     )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "User registered"),
+        @ApiResponse(responseCode = "409", description = "Username or email already in use")
+    })
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            return ResponseEntity.badRequest().body("Error: Username is already taken!");
-        }
-
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            return ResponseEntity.badRequest().body("Error: Email is already in use!");
-        }
-
-        User user = new User(
-            registerRequest.getUsername(),
-            registerRequest.getEmail(),
-            encoder.encode(registerRequest.getPassword())
-        );
-
-        Set<Role> roles = new HashSet<>();
-        roles.add(Role.ROLE_USER);
-        user.setRoles(roles);
-
-        userRepository.save(user);
-        logger.info("User registered successfully with roles: {}", roles);
+        // Uniqueness is enforced by the unique indexes; a duplicate surfaces as 409
+        User user = userRegistrationService.register(registerRequest);
+        logger.info("User registered successfully with roles: {}", user.getRoles());
 
         return ResponseEntity.ok("User registered successfully!");
     }
@@ -133,33 +127,70 @@ public class AuthController {
     public ResponseEntity<?> refreshToken(@Valid @RequestBody TokenRefreshRequest request) {
         String requestRefreshToken = request.getRefreshToken();
 
-        return refreshTokenService.findByToken(requestRefreshToken)
-            .map(refreshTokenService::verifyExpiration)
-            .map(RefreshToken::getUserId)
-            .map(userId -> {
-                User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
-                String token = jwtUtils.generateTokenFromUsername(user.getUsername());
-                return ResponseEntity.ok(new TokenRefreshResponse(token, requestRefreshToken));
+        return refreshTokenService.findByTokenWithUser(requestRefreshToken)
+            .map(tokenWithUser -> {
+                RefreshToken refreshToken = refreshTokenService.verifyExpiration(tokenWithUser.refreshToken());
+                User user = tokenWithUser.user();
+                if (user == null) {
+                    throw new UsernameNotFoundException("User not found with id: " + refreshToken.getUserId());
+                }
+                // The presented token is single-use; a concurrent refresh with the same token loses
+                RefreshToken rotated = refreshTokenService.rotate(refreshToken)
+                    .orElseThrow(() -> new TokenRefreshException("Refresh token was already used"));
+                String token = jwtUtils.generateTokenFromUserDetails(UserDetailsImpl.build(user));
+                return ResponseEntity.ok(new TokenRefreshResponse(token, rotated.getToken()));
             })
             .orElseThrow(() -> new RuntimeException("Refresh token not found"));
     }
 
     @Operation(
         summary = "Logout user",
+        description = "Ends the session of the presented refresh token and revokes the access token sent in the "
+            + "Authorization header; sessions on other devices stay open",
         security = {}
     )
     @PostMapping("/logout")
-    public ResponseEntity<?> logoutUser(@Valid @RequestBody TokenRefreshRequest request) {
+    public ResponseEntity<?> logoutUser(@Valid @RequestBody TokenRefreshRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        try {
+            String userId = refreshTokenService.revokeSession(request.getRefreshToken())
+                .map(RefreshToken::getUserId)
+                .orElseThrow(() -> new RuntimeException("Refresh token not found"));
+
+            Optional<Claims> accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? jwtUtils.parseValidClaims(authorization.substring(7))
+                : Optional.empty();
+            UserDetailsImpl principal = accessToken.map(jwtUtils::getUserDetailsFromClaims).orElse(null);
+            if (principal != null && userId.equals(principal.getId()) && accessToken.get().getId() != null) {
+                // Revoke just this device's access token
+                tokenRevocationList.revoke(accessToken.get().getId(), userId, accessToken.get().getExpiration());
+            } else {
+                // Without the access token there is no telling which one belongs to this
+                // device, so invalidate them all; other devices simply refresh
+                tokenGenerationService.revokeAll(userId);
+            }
+            return ResponseEntity.ok("Log out successful");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @Operation(
+        summary = "Logout from all devices",
+        security = {}
+    )
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAllDevices(@Valid @RequestBody TokenRefreshRequest request) {
         try {
             String userId = refreshTokenService.findByToken(request.getRefreshToken())
                 .map(RefreshToken::getUserId)
                 .orElseThrow(() -> new RuntimeException("Refresh token not found"));
-            
+
             refreshTokenService.deleteByUserId(userId);
-            return ResponseEntity.ok("Log out successful");
+            tokenGenerationService.revokeAll(userId);
+            return ResponseEntity.ok("Logged out from all devices");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+}
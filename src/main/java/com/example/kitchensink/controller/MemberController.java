@@ -1,30 +1,68 @@
 package com.example.kitchensink.controller;
 
 import com.example.kitchensink.dto.CreateMemberRequest;
+import com.example.kitchensink.dto.MemberBatchRequest;
+import com.example.kitchensink.dto.MemberBatchResponse;
 import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.dto.MemberImportResponse;
+import com.example.kitchensink.dto.PatchMemberRequest;
 import com.example.kitchensink.dto.UpdateMemberRequest;
 import com.example.kitchensink.dto.response.ApiResponse;
 import com.example.kitchensink.dto.response.PagedResponse;
+import com.example.kitchensink.dto.response.SerializedApiResponse;
+import com.example.kitchensink.exception.ResourceNotFoundException;
+import com.example.kitchensink.exception.ServiceUnavailableException;
 import com.example.kitchensink.mapper.MemberMapper;
 import com.example.kitchensink.model.Member;
+import com.example.kitchensink.repository.MemberCountStrategy;
+import com.example.kitchensink.repository.MemberCursor;
 import com.example.kitchensink.repository.MemberRepository;
 import com.example.kitchensink.annotation.SwaggerResponse;
+import com.example.kitchensink.service.MemberBatchService;
+import com.example.kitchensink.service.MemberCache;
+import com.example.kitchensink.service.MemberChangeFeed;
+import com.example.kitchensink.service.MemberCounter;
+import com.example.kitchensink.service.MemberExportService;
+import com.example.kitchensink.service.MemberImportService;
+import com.example.kitchensink.service.MemberPageCache;
+import com.example.kitchensink.service.MemberService;
+import com.example.kitchensink.service.MemberSearchIndex;
+import com.example.kitchensink.service.MemberWriteBehind;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,12 +77,48 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class MemberController {
     private static final Logger logger = LoggerFactory.getLogger(MemberController.class);
 
+    private static final String FIELDS_PATTERN =
+        "^(id|name|email|phoneNumber)(,(id|name|email|phoneNumber))*$";
+
     @Autowired
     private MemberRepository memberRepository;
 
     @Autowired
     private MemberMapper memberMapper;
 
+    @Autowired
+    private MemberCounter memberCounter;
+
+    @Autowired
+    private MemberExportService memberExportService;
+
+    @Autowired
+    private MemberImportService memberImportService;
+
+    @Autowired
+    private MemberBatchService memberBatchService;
+
+    @Autowired
+    private MemberSearchIndex memberSearchIndex;
+
+    @Autowired
+    private MemberCache memberCache;
+
+    @Autowired
+    private MemberPageCache memberPageCache;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private MemberWriteBehind memberWriteBehind;
+
+    @Autowired
+    private MemberChangeFeed memberChangeFeed;
+
+    @Value("${app.memberCountStrategy:exact}")
+    private String defaultCountStrategy = "exact";
+
     @GetMapping
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> getAllMembers(
@@ -53,8 +127,41 @@ public class MemberController {
             @RequestParam(defaultValue = "name") @Pattern(regexp = "^(name|email|phoneNumber)$", 
                 message = "Sort by must be one of: name, email, phoneNumber") String sortBy,
             @RequestParam(defaultValue = "asc") @Pattern(regexp = "^(asc|desc)$", 
-                message = "Direction must be either 'asc' or 'desc'") String direction) {
-        
+                message = "Direction must be either 'asc' or 'desc'") String direction,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @Pattern(regexp = "^(exact|estimated|cached|none)$",
+                message = "Count must be one of: exact, estimated, cached, none") String count,
+            @RequestParam(required = false) @Pattern(regexp = FIELDS_PATTERN,
+                message = "Fields must be a comma-separated list of: id, name, email, phoneNumber") String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        // Taken before reading, so a cached page is never older than its tag
+        String etag = memberPageCache.etag(String.join("|", String.valueOf(page), String.valueOf(size), sortBy,
+                direction.toLowerCase(Locale.ROOT), String.valueOf(after),
+                count != null ? count : defaultCountStrategy, String.valueOf(fields)));
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+        ApiResponse<PagedResponse<MemberDto>> body = memberPageCache.get(etag);
+        if (body == null) {
+            ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                    readMembers(page, size, sortBy, direction, after, count, fields);
+            if (!response.getStatusCode().is2xxSuccessful() || !response.getBody().isSuccess()) {
+                return response;
+            }
+            body = memberPageCache.put(etag, response.getBody());
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
+    }
+
+    private ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> readMembers(
+            int page, int size, String sortBy, String direction, String after, String count, String fields) {
         try {
             logger.debug("Fetching members page {} of size {}, sorted by {} {}", page, size, sortBy, direction);
             
@@ -70,19 +177,52 @@ public class MemberController {
                 return ResponseEntity.ok(ApiResponse.error("Invalid sort direction: " + direction));
             }
             
-            Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
-            
-            Page<Member> memberPage = memberRepository.findAll(pageable);
+            Set<String> projection = parseFields(fields);
+            if (after != null) {
+                return getMembersAfter(after, size, sortBy, sortDirection, projection);
+            }
+
+            // _id breaks ties between equal sort values so pages never overlap
+            Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy, "_id"));
             
+            MemberCountStrategy countStrategy = MemberCountStrategy.fromString(
+                    count != null ? count : defaultCountStrategy);
+
             PagedResponse<MemberDto> response = new PagedResponse<>();
-            response.setContent(memberPage.getContent().stream()
-                    .map(memberMapper::toDto)
-                    .collect(Collectors.toList()));
-            response.setPage(memberPage.getNumber());
-            response.setSize(memberPage.getSize());
-            response.setTotalElements(memberPage.getTotalElements());
-            response.setTotalPages(memberPage.getTotalPages());
-            response.setLast(memberPage.isLast());
+            response.setCountStrategy(countStrategy.value());
+            if (countStrategy == MemberCountStrategy.EXACT) {
+                Page<Member> memberPage = memberRepository.findPageWithTotal(pageable, projection);
+                response.setContent(memberPage.getContent().stream()
+                        .map(member -> memberMapper.toDto(member, projection))
+                        .collect(Collectors.toList()));
+                response.setTotalElements(memberPage.getTotalElements());
+                response.setTotalPages(memberPage.getTotalPages());
+                response.setLast(memberPage.isLast());
+            } else {
+                Slice<Member> memberSlice = memberRepository.findSlice(pageable, projection);
+                response.setContent(memberSlice.getContent().stream()
+                        .map(member -> memberMapper.toDto(member, projection))
+                        .collect(Collectors.toList()));
+                long total = switch (countStrategy) {
+                    case ESTIMATED -> memberRepository.estimatedCount();
+                    case CACHED -> memberCounter.get();
+                    default -> -1;
+                };
+                if (total >= 0) {
+                    // Approximate totals must not contradict what this page already shows
+                    long seen = pageable.getOffset() + memberSlice.getNumberOfElements();
+                    if (memberSlice.hasNext()) {
+                        total = Math.max(total, seen + 1);
+                    } else {
+                        total = memberSlice.hasContent() ? seen : Math.min(total, pageable.getOffset());
+                    }
+                }
+                response.setTotalElements(total);
+                response.setTotalPages(total < 0 ? -1 : (int) ((total + size - 1) / size));
+                response.setLast(!memberSlice.hasNext());
+            }
+            response.setPage(page);
+            response.setSize(size);
 
             logger.debug("Returning {} members", response.getContent().size());
             return ResponseEntity.ok(ApiResponse.success(response));
@@ -92,6 +232,155 @@ public class MemberController {
         }
     }
 
+    @Operation(
+        summary = "Search members",
+        description = "Typeahead search: members whose name, email or phone number contains q "
+            + "(one or two characters match the start of a word)"
+    )
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<List<MemberDto>>> searchMembers(
+            @RequestParam @Size(min = 1, max = 100, message = "Query must be between 1 and 100 characters") String q,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+        List<MemberDto> members = memberSearchIndex.search(q, limit).stream()
+                .map(memberMapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(ApiResponse.success(members));
+    }
+
+    @Operation(
+        summary = "Export all members",
+        description = "Streams every member as NDJSON or CSV from a single database cursor"
+    )
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> exportMembers(
+            @RequestParam(defaultValue = "ndjson") @Pattern(regexp = "^(ndjson|csv)$",
+                message = "Format must be either 'ndjson' or 'csv'") String format,
+            @RequestParam(required = false) @Pattern(regexp = FIELDS_PATTERN,
+                message = "Fields must be a comma-separated list of: id, name, email, phoneNumber") String fields) {
+        MemberExportService.Format exportFormat = MemberExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        Set<String> projection = parseFields(fields);
+        logger.debug("Exporting members as {}", exportFormat.getExtension());
+
+        // Runs on the MVC async executor once this method returns; the request thread is released
+        StreamingResponseBody body = out -> memberExportService.export(out, exportFormat, projection);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("members." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @Operation(
+        summary = "Import members",
+        description = "Creates members from an NDJSON or CSV upload (CSV needs a header row). "
+            + "Invalid or duplicate rows are reported by line; the rest are still imported."
+    )
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<MemberImportResponse>> importMembers(HttpServletRequest request)
+            throws IOException {
+        MemberImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? MemberImportService.Format.CSV
+                : MemberImportService.Format.NDJSON;
+        logger.debug("Importing members from {}", format);
+        // The body is read as it arrives rather than bound up front, so uploads of any size work
+        MemberImportResponse result = memberImportService.importMembers(request.getInputStream(), format);
+        return ResponseEntity.ok(ApiResponse.success(
+            "Imported " + result.getImported() + " of " + result.getReceived() + " members", result));
+    }
+
+    @Operation(
+        summary = "Batch member changes",
+        description = "Runs up to 1000 create, update and delete operations as one unordered bulk write "
+            + "and returns a result per operation; each member id may appear only once. The write takes "
+            + "one round trip per kind of operation in the batch, up to three, plus a lookup of the "
+            + "missing ids when some but not all updates matched"
+    )
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<MemberBatchResponse>> batchMembers(@Valid @RequestBody MemberBatchRequest request) {
+        logger.debug("Running member batch of {} operations", request.getOperations().size());
+        MemberBatchResponse result = memberBatchService.execute(request.getOperations());
+        return ResponseEntity.ok(ApiResponse.success("Batch completed with " + result.getFailed() + " failed operations",
+            result));
+    }
+
+    /**
+     * Keyset mode: seeks past the cursor on the (sortBy, _id) index instead of
+     * skipping rows, so every page costs the same regardless of depth. No count
+     * is run; totalElements and totalPages are reported as -1.
+     */
+    private ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> getMembersAfter(
+            String after, int size, String sortBy, Sort.Direction sortDirection, Set<String> projection) {
+        MemberCursor cursor = null;
+        if (!after.isEmpty()) {
+            try {
+                cursor = MemberCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("Invalid cursor"));
+            }
+            if (!cursor.sortBy().equals(sortBy) || cursor.direction() != sortDirection) {
+                return ResponseEntity.badRequest().body(
+                    ApiResponse.error("Cursor does not match the requested sort order"));
+            }
+        }
+
+        // One extra row tells whether another page follows
+        List<Member> members = memberRepository.findPageAfter(sortBy, sortDirection, cursor, size + 1, projection);
+        boolean last = members.size() <= size;
+        if (!last) {
+            members = members.subList(0, size);
+        }
+
+        PagedResponse<MemberDto> response = new PagedResponse<>();
+        response.setCountStrategy(MemberCountStrategy.NONE.value());
+        response.setContent(members.stream()
+                .map(member -> memberMapper.toDto(member, projection))
+                .collect(Collectors.toList()));
+        response.setPage(-1);
+        response.setSize(size);
+        response.setTotalElements(-1);
+        response.setTotalPages(-1);
+        response.setLast(last);
+        if (!last) {
+            Member lastMember = members.get(members.size() - 1);
+            response.setNextCursor(new MemberCursor(sortBy, sortDirection,
+                sortValue(lastMember, sortBy), lastMember.getId()).encode());
+        }
+
+        logger.debug("Returning {} members after cursor", response.getContent().size());
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    /**
+     * Parses {@code fields=} into the set of member fields to read; null when
+     * absent, meaning every field. The id is always returned.
+     */
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        if (!fields.matches(FIELDS_PATTERN)) {
+            throw new IllegalArgumentException("Invalid fields: " + fields);
+        }
+        Set<String> projection = new LinkedHashSet<>(Arrays.asList(fields.split(",")));
+        projection.remove("id");
+        return projection;
+    }
+
+    private static String sortValue(Member member, String sortBy) {
+        return switch (sortBy) {
+            case "email" -> member.getEmail();
+            case "phoneNumber" -> member.getPhoneNumber();
+            default -> member.getName();
+        };
+    }
+
     private boolean isSortByFieldValid(String sortBy) {
         try {
             Member.class.getDeclaredField(sortBy);
@@ -101,6 +390,66 @@ public class MemberController {
         }
     }
 
+    @Operation(
+        summary = "Stream member changes",
+        description = "Server-Sent Events named created, updated and deleted, each with the member as it now is. "
+            + "Reconnect with Last-Event-ID to receive what was missed, within the last "
+            + "app.memberStreamReplaySize events; a reset event means changes were dropped, or the id is older "
+            + "than that, and the list should be reloaded. Comments are sent as heartbeats."
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public SseEmitter streamMembers(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return memberChangeFeed.subscribe(lastEventId);
+    }
+
+    @Operation(
+        summary = "Get member by id",
+        description = "Returns one member with a strong ETag; If-None-Match with the current ETag answers 304"
+    )
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<MemberDto>> getMember(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MemberCache.CachedMember cached = memberCache.get(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Member not found with id: " + id));
+        if (etagMatches(ifNoneMatch, cached.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(cached.etag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(cached.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success(cached.member()));
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so a W/ prefix on the client's
+     * copy still matches; "*" matches any existing member.
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Operation(
         summary = "Create new member",
         description = "Creates a new member with the provided details"
@@ -112,49 +461,105 @@ public class MemberController {
         logger.debug("Creating new member with email: {}", request.getEmail());
         try {
             Member member = memberMapper.toEntity(request);
-            Member savedMember = memberRepository.save(member);
+            // With write-behind on, the insert joins the next group commit
+            Member savedMember = memberWriteBehind.isEnabled()
+                ? memberWriteBehind.insert(member)
+                : memberRepository.save(member);
             logger.info("Successfully created member with id: {}", savedMember.getId());
             return ResponseEntity.ok(ApiResponse.success("Member created successfully", memberMapper.toDto(savedMember)));
+        } catch (DuplicateKeyException e) {
+            // Lost a race with another create of the same email; the unique index caught it
+            throw MemberService.duplicateEmail();
+        } catch (ServiceUnavailableException e) {
+            // Write-behind buffer is full; 503 with Retry-After
+            throw e;
         } catch (Exception e) {
             logger.error("Error creating member: {}", e.getMessage());
             return ResponseEntity.badRequest().body(ApiResponse.error("Failed to create member"));
         }
     }
 
+    @Operation(
+        summary = "Replace member",
+        description = "Sets every field in one round trip; with If-Match the update only applies to that version"
+    )
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<MemberDto>> updateMember(
             @PathVariable String id,
-            @Valid @RequestBody UpdateMemberRequest request) {
+            @Valid @RequestBody UpdateMemberRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.debug("Updating member with id: {}", id);
-        return memberRepository.findById(id)
-                .map(member -> {
-                    memberMapper.updateEntityFromDto(request, member);
-                    Member updatedMember = memberRepository.save(member);
-                    logger.info("Successfully updated member with id: {}", id);
-                    return ResponseEntity.ok(ApiResponse.success("Member updated successfully", 
-                        memberMapper.toDto(updatedMember)));
-                })
-                .orElseGet(() -> {
-                    logger.warn("Member not found with id: {}", id);
-                    return ResponseEntity.ok(ApiResponse.error("Member not found with id: " + id));
-                });
+        Member changes = new Member();
+        memberMapper.updateEntityFromDto(request, changes);
+        return applyUpdate(id, changes, ifMatch);
+    }
+
+    @Operation(
+        summary = "Update member fields",
+        description = "Sets only the fields present in the body; with If-Match the update only applies to that version"
+    )
+    @PatchMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<MemberDto>> patchMember(
+            @PathVariable String id,
+            @Valid @RequestBody PatchMemberRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Patching member with id: {}", id);
+        if (request.getName() == null && request.getEmail() == null && request.getPhoneNumber() == null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("No fields to update"));
+        }
+        return applyUpdate(id, memberMapper.toChanges(request), ifMatch);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Object>> deleteMember(@PathVariable String id) {
+    public ResponseEntity<ApiResponse<Object>> deleteMember(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.debug("Deleting member with id: {}", id);
-        return memberRepository.findById(id)
-                .map(member -> {
-                    memberRepository.delete(member);
-                    logger.info("Successfully deleted member with id: {}", id);
-                    return ResponseEntity.ok(ApiResponse.success("Member deleted successfully", null));
+        if (memberService.deleteMember(id, expectedVersion(ifMatch))) {
+            logger.info("Successfully deleted member with id: {}", id);
+            return ResponseEntity.ok(ApiResponse.success("Member deleted successfully", null));
+        }
+        logger.warn("Member not found with id: {}", id);
+        return ResponseEntity.ok(ApiResponse.error("Member not found with id: " + id));
+    }
+
+    private ResponseEntity<ApiResponse<MemberDto>> applyUpdate(String id, Member changes, String ifMatch) {
+        return memberService.updateMember(id, changes, expectedVersion(ifMatch))
+                .map(updatedMember -> {
+                    logger.info("Successfully updated member with id: {}", id);
+                    return ResponseEntity.ok()
+                            .eTag(MemberCache.etag(updatedMember))
+                            .body(ApiResponse.success("Member updated successfully",
+                                memberMapper.toDto(updatedMember)));
                 })
                 .orElseGet(() -> {
                     logger.warn("Member not found with id: {}", id);
                     return ResponseEntity.ok(ApiResponse.error("Member not found with id: " + id));
                 });
     }
+
+    /**
+     * Version named by an If-Match header. Null when the header is absent or
+     * "*", which only require the member to exist. If-Match compares strongly,
+     * so a weak, foreign or multi-valued tag can never match and fails the
+     * precondition.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not one of ours; falls through to the failed precondition
+            }
+        }
+        throw new OptimisticLockingFailureException("If-Match " + tag + " does not match the current version");
+    }
 }
 
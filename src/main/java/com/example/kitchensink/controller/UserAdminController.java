@@ -0,0 +1,43 @@
+package com.example.kitchensink.controller;
+
+import com.example.kitchensink.dto.BulkRegisterRequest;
+import com.example.kitchensink.dto.BulkRegisterResponse;
+import com.example.kitchensink.dto.response.ApiResponse;
+import com.example.kitchensink.service.UserRegistrationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/admin/users")
+@Tag(name = "User administration", description = "Admin-only user management APIs")
+@SecurityRequirement(name = "bearer-jwt")
+public class UserAdminController {
+    private static final Logger logger = LoggerFactory.getLogger(UserAdminController.class);
+
+    @Autowired
+    private UserRegistrationService userRegistrationService;
+
+    @Operation(
+        summary = "Bulk register users",
+        description = "Registers up to 10000 users. Entries that clash with an existing username or email "
+            + "are reported individually; the rest are still created."
+    )
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BulkRegisterResponse>> registerUsers(
+            @Valid @RequestBody BulkRegisterRequest request) {
+        logger.debug("Bulk registering {} users", request.getUsers().size());
+        BulkRegisterResponse result = userRegistrationService.registerAll(request.getUsers());
+        return ResponseEntity.ok(ApiResponse.success(
+            "Registered " + result.getRegistered() + " of " + result.getRequested() + " users", result));
+    }
+}
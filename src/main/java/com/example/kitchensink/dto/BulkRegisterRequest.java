@@ -0,0 +1,16 @@
+package com.example.kitchensink.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkRegisterRequest {
+    @NotEmpty(message = "At least one user is required")
+    @Size(max = 10000, message = "At most 10000 users can be registered per request")
+    @Valid
+    private List<RegisterRequest> users;
+}
@@ -0,0 +1,24 @@
+package com.example.kitchensink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkRegisterResponse {
+    private int requested;
+    private int registered;
+    private List<Failure> failures;
+
+    @Data
+    @AllArgsConstructor
+    public static class Failure {
+        // Position of the user in the request
+        private int index;
+        private String username;
+        private String field;
+        private String message;
+    }
+}
@@ -12,6 +12,9 @@ public class LoginRequest {
     @Size(min = 6, max = 40, message = "Password must be between 6 and 40 characters")
     private String password;
 
+    @Size(max = 100, message = "Device name must be at most 100 characters")
+    private String deviceName;
+
     // Getters and Setters
     public String getUsername() {
         return username;
@@ -28,4 +31,12 @@ public class LoginRequest {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    public void setDeviceName(String deviceName) {
+        this.deviceName = deviceName;
+    }
 } 
\ No newline at end of file
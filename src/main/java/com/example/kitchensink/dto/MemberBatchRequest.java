@@ -0,0 +1,36 @@
+package com.example.kitchensink.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MemberBatchRequest {
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 1000, message = "At most 1000 operations can be sent per batch")
+    @Valid
+    private List<Operation> operations;
+
+    /**
+     * One create, update or delete. Member fields are checked per operation
+     * type when the batch runs, so one bad entry does not reject the batch.
+     */
+    @Data
+    public static class Operation {
+        @NotNull(message = "Operation is required")
+        @Pattern(regexp = "^(create|update|delete)$", message = "Operation must be one of: create, update, delete")
+        private String op;
+
+        // Target of update and delete
+        private String id;
+
+        private String name;
+        private String email;
+        private String phoneNumber;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.kitchensink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MemberBatchResponse {
+    private int created;
+    private int updated;
+    private int deleted;
+    private int failed;
+    // One entry per operation, in request order
+    private List<Result> results;
+
+    public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, INVALID, CONFLICT, FAILED }
+
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        private int index;
+        private String op;
+        private String id;
+        private Status status;
+        private String field;
+        private String message;
+    }
+}
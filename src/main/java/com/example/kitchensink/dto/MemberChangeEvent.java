@@ -0,0 +1,23 @@
+package com.example.kitchensink.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MemberChangeEvent {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    // Sent instead of changes the subscriber fell too far behind to receive; reload the list
+    public static final String RESET = "reset";
+
+    // SSE event id; send it back as Last-Event-ID to resume
+    private String id;
+    private String type;
+    private String memberId;
+    // State after the change; null for deletes
+    private MemberDto member;
+}
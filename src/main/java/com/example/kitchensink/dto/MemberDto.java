@@ -1,8 +1,11 @@
 package com.example.kitchensink.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
+// Fields not requested through fields= are null and omitted from the response
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class MemberDto {
     private String id;
     private String name;
@@ -0,0 +1,25 @@
+package com.example.kitchensink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MemberImportResponse {
+    private long received;
+    private long imported;
+    private long failed;
+    // At most app.memberImportMaxReportedFailures entries; failed has the full count
+    private List<Failure> failures;
+
+    @Data
+    @AllArgsConstructor
+    public static class Failure {
+        // Line of the row in the uploaded file, starting at 1
+        private long line;
+        private String field;
+        private String message;
+    }
+}
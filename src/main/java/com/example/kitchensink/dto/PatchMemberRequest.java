@@ -0,0 +1,19 @@
+package com.example.kitchensink.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+// Partial update: fields left out (null) keep their stored value
+public class PatchMemberRequest {
+    @Size(min = 2, max = 50, message = "Name must be between 2 and 50 characters")
+    @Pattern(regexp = "^[a-zA-Z\\s]*$", message = "Name can only contain letters and spaces")
+    private String name;
+
+    @Email(message = "Please provide a valid email address")
+    @Pattern(regexp = ".*\\S.*", message = "Email must not be blank")
+    private String email;
+
+    @Pattern(regexp = "^\\+?[1-9][0-9]{7,14}$", message = "Please provide a valid phone number")
+    private String phoneNumber;
+}
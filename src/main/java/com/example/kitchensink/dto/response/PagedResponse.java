@@ -11,4 +11,8 @@ public class PagedResponse<T> {
     private long totalElements;
     private int totalPages;
     private boolean last;
+    // How totalElements was obtained: exact, estimated, cached or none (-1 totals)
+    private String countStrategy;
+    // Opaque cursor for the next keyset page (?after=); null on the last page or in offset mode
+    private String nextCursor;
 } 
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.kitchensink.dto.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * An {@link ApiResponse} that already knows its JSON. Jackson copies the stored
+ * text instead of walking the object again, so a cached response costs one copy
+ * per request. The fields stay readable for code that inspects the response.
+ */
+public class SerializedApiResponse<T> extends ApiResponse<T> implements JsonSerializable {
+
+    private final String json;
+
+    public SerializedApiResponse(ApiResponse<T> response, String json) {
+        super(response.isSuccess(), response.getMessage(), response.getData(), response.getErrors());
+        this.json = json;
+    }
+
+    public int length() {
+        return json.length();
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, provider);
+    }
+}
@@ -1,7 +1,45 @@
 package com.example.kitchensink.exception;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 public class DuplicateResourceException extends RuntimeException {
+    // E11000 messages look like: "... index: email_1 dup key: { email: \"a@b.c\" }"
+    private static final Pattern DUPLICATE_KEY = Pattern.compile("index: (\\S+) dup key: \\{ ?\"?(\\w+)");
+
+    private final String field;
+
     public DuplicateResourceException(String message) {
+        this(message, null);
+    }
+
+    public DuplicateResourceException(String message, String field) {
         super(message);
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Names the field behind a Mongo duplicate key error, taken from the key in
+     * the error message or, failing that, from the index name. Returns null when
+     * the message names none of the candidate fields.
+     */
+    public static String duplicateField(String errorMessage, String... candidates) {
+        if (errorMessage == null) {
+            return null;
+        }
+        Matcher matcher = DUPLICATE_KEY.matcher(errorMessage);
+        if (!matcher.find()) {
+            return null;
+        }
+        for (String candidate : candidates) {
+            if (candidate.equals(matcher.group(2)) || matcher.group(1).startsWith(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
     }
-} 
\ No newline at end of file
+}
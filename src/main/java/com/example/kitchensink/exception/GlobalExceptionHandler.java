@@ -1,6 +1,10 @@
 package com.example.kitchensink.exception;
 
 import com.example.kitchensink.dto.response.ApiResponse;
+import com.example.kitchensink.validation.UniqueEmail;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -12,6 +16,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
@@ -19,8 +25,14 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<?>> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
-        String message = ex.getBindingResult()
-                .getFieldErrors()
+        List<FieldError> fieldErrors = ex.getBindingResult().getFieldErrors();
+        // A taken email is a conflict whether the validator or the unique index finds it
+        if (!fieldErrors.isEmpty() && fieldErrors.stream()
+                .allMatch(error -> UniqueEmail.class.getSimpleName().equals(error.getCode()))) {
+            FieldError error = fieldErrors.get(0);
+            return handleDuplicateResource(new DuplicateResourceException(error.getDefaultMessage(), error.getField()));
+        }
+        String message = fieldErrors
                 .stream()
                 .map(FieldError::getDefaultMessage)
                 .collect(Collectors.joining(", "));
@@ -49,6 +61,10 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ApiResponse<?>> handleAuthenticationException(AuthenticationException ex) {
+        // DaoAuthenticationProvider wraps failures during user lookup, including a full hashing queue
+        if (ex.getCause() instanceof ServiceUnavailableException busy) {
+            return handleServiceUnavailable(busy);
+        }
         return ResponseEntity
                 .status(HttpStatus.UNAUTHORIZED)
                 .body(ApiResponse.error(ex.getMessage()));
@@ -65,6 +81,22 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<?>> handleDuplicateResource(DuplicateResourceException ex) {
         return ResponseEntity
                 .status(HttpStatus.CONFLICT)
+                .body(ex.getField() != null
+                        ? ApiResponse.error(ex.getMessage(), Map.of("field", ex.getField()))
+                        : ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<ApiResponse<?>> handleDuplicateKey(DuplicateKeyException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("Resource already exists"));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<?>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
@@ -75,6 +107,14 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<?>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<?>> handleUnexpectedException(Exception ex) {
         return ResponseEntity
@@ -0,0 +1,212 @@
+package com.example.kitchensink.filter;
+
+import com.example.kitchensink.dto.response.ApiResponse;
+import com.example.kitchensink.security.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds brute-force traffic against the authentication endpoints with 429
+ * before it reaches password hashing or Mongo. Every POST under /api/auth is
+ * limited per client IP; logins are additionally limited per login name, so a
+ * credential-stuffing run spread over many IPs is still capped per account.
+ * The login is keyed on its trimmed, lower-cased text, which costs no lookup,
+ * so the filter never reaches Mongo. An account can be named by its username
+ * or its email, each with its own bucket, so it takes up to twice the
+ * per-login rate.
+ * <p>
+ * Login bodies larger than {@value #MAX_BUFFERED_BODY_BYTES} bytes are refused
+ * with 413: the username has to be read before the request goes on, and a
+ * padded body must not be a way around the per-account limit.
+ * <p>
+ * The client IP is the request's remote address, which Tomcat resolves from
+ * X-Forwarded-For under {@code server.forward-headers-strategy=native} when the
+ * request arrives through a trusted proxy. Behind a load balancer every client
+ * would otherwise share the balancer's address, and so share one bucket.
+ */
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimitFilter.class);
+
+    private static final String AUTH_PATH_PREFIX = "/api/auth/";
+    private static final String LOGIN_PATH = "/api/auth/login";
+
+    // Login bodies are tiny; anything larger is refused rather than passed on unlimited
+    private static final int MAX_BUFFERED_BODY_BYTES = 4096;
+
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter usernameLimiter;
+    private final Counter ipRejections;
+    private final Counter usernameRejections;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public AuthRateLimitFilter(TokenBucketRateLimiter ipLimiter, TokenBucketRateLimiter usernameLimiter,
+                               MeterRegistry meterRegistry) {
+        this.ipLimiter = ipLimiter;
+        this.usernameLimiter = usernameLimiter;
+        this.ipRejections = meterRegistry.counter("auth.ratelimit.rejected", "key", "ip");
+        this.usernameRejections = meterRegistry.counter("auth.ratelimit.rejected", "key", "username");
+        meterRegistry.gauge("auth.ratelimit.keys", List.of(Tag.of("key", "ip")),
+                ipLimiter, TokenBucketRateLimiter::size);
+        meterRegistry.gauge("auth.ratelimit.keys", List.of(Tag.of("key", "username")),
+                usernameLimiter, TokenBucketRateLimiter::size);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !request.getServletPath().startsWith(AUTH_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientIp = request.getRemoteAddr();
+        long waitNanos = ipLimiter.tryAcquire(clientIp);
+        if (waitNanos > 0) {
+            ipRejections.increment();
+            logger.debug("Rate limited {} from {}", request.getServletPath(), clientIp);
+            reject(response, waitNanos);
+            return;
+        }
+
+        if (LOGIN_PATH.equals(request.getServletPath())) {
+            CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+            if (!cachedRequest.isFullyBuffered()) {
+                response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(),
+                        ApiResponse.error("Login request body is too large"));
+                return;
+            }
+            String username = extractUsername(cachedRequest);
+            if (username != null) {
+                waitNanos = usernameLimiter.tryAcquire("login:" + username.toLowerCase(Locale.ROOT));
+                if (waitNanos > 0) {
+                    usernameRejections.increment();
+                    logger.debug("Rate limited login for username {} from {}", username, clientIp);
+                    reject(response, waitNanos);
+                    return;
+                }
+            }
+            request = cachedRequest;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String extractUsername(CachedBodyRequest request) {
+        try {
+            JsonNode username = objectMapper.readTree(request.buffered).get("username");
+            return username != null && username.isTextual() && !username.asText().isBlank()
+                    ? username.asText().trim()
+                    : null;
+        } catch (IOException e) {
+            // Malformed bodies are left for request validation to reject
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many authentication attempts, please retry later"));
+    }
+
+    /**
+     * Buffers the body, up to the cap, so the username can be read here and the
+     * body still reaches the controller. Bodies over the cap are never passed on.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] buffered;
+        private final boolean fullyBuffered;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            InputStream in = request.getInputStream();
+            this.buffered = in.readNBytes(MAX_BUFFERED_BODY_BYTES);
+            this.fullyBuffered = buffered.length < MAX_BUFFERED_BODY_BYTES || in.read() < 0;
+        }
+
+        boolean isFullyBuffered() {
+            return fullyBuffered;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream body = new ByteArrayInputStream(buffered);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return body.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return body.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return body.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is already in memory, so the listener is told at
+                 * once that data is available and, once it is read, that all of it was.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.kitchensink.filter;
+
+import com.example.kitchensink.dto.response.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps how many requests are handled at once, answering the rest with 503 and
+ * Retry-After. On platform threads {@code server.tomcat.threads.max} is this cap;
+ * on virtual threads nothing else is, and every request over the Mongo pool size
+ * would park in the driver's wait queue, holding its socket and memory until it
+ * times out. This bounds that queue to the cap minus the pool size.
+ * <p>
+ * The permit is held only while the request thread runs, so streams and exports
+ * that continue asynchronously do not count against it once they have started.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final Semaphore permits;
+    private final int maxConcurrentRequests;
+    private final long retryAfterSeconds;
+    private final Counter rejections;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rejections = meterRegistry.counter("http.server.requests.shed");
+        meterRegistry.gauge("http.server.requests.inflight", permits,
+                p -> maxConcurrentRequests - p.availablePermits());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!permits.tryAcquire()) {
+            rejections.increment();
+            logger.debug("Shed {} {}: {} requests already in flight",
+                    request.getMethod(), request.getRequestURI(), maxConcurrentRequests);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Server is busy, please retry shortly"));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
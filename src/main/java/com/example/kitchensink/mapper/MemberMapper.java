@@ -2,10 +2,13 @@ package com.example.kitchensink.mapper;
 
 import com.example.kitchensink.dto.CreateMemberRequest;
 import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.dto.PatchMemberRequest;
 import com.example.kitchensink.dto.UpdateMemberRequest;
 import com.example.kitchensink.model.Member;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
+
 @Component
 public class MemberMapper {
     
@@ -18,6 +21,29 @@ public class MemberMapper {
         return dto;
     }
 
+    /**
+     * Sparse variant for {@code fields=} reads: only the requested fields are
+     * copied, the rest stay null and are left out of the JSON. The id is always
+     * included. A null set means every field.
+     */
+    public MemberDto toDto(Member member, Set<String> fields) {
+        if (fields == null) {
+            return toDto(member);
+        }
+        MemberDto dto = new MemberDto();
+        dto.setId(member.getId());
+        if (fields.contains("name")) {
+            dto.setName(member.getName());
+        }
+        if (fields.contains("email")) {
+            dto.setEmail(member.getEmail());
+        }
+        if (fields.contains("phoneNumber")) {
+            dto.setPhoneNumber(member.getPhoneNumber());
+        }
+        return dto;
+    }
+
     public Member toEntity(CreateMemberRequest request) {
         Member member = new Member();
         member.setName(request.getName());
@@ -26,6 +52,17 @@ public class MemberMapper {
         return member;
     }
 
+    /**
+     * Changes named by a PATCH; fields the request leaves out stay null.
+     */
+    public Member toChanges(PatchMemberRequest request) {
+        Member member = new Member();
+        member.setName(request.getName());
+        member.setEmail(request.getEmail());
+        member.setPhoneNumber(request.getPhoneNumber());
+        return member;
+    }
+
     public void updateEntityFromDto(UpdateMemberRequest request, Member member) {
         member.setName(request.getName());
         member.setEmail(request.getEmail());
@@ -1,6 +1,7 @@
 package com.example.kitchensink.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.*;
 import lombok.Getter;
@@ -29,4 +30,12 @@ public class Member {
     @NotBlank(message = "Phone number is required")
     @Pattern(regexp = "^\\+?[1-9][0-9]{7,14}$", message = "Please provide a valid phone number")
     private String phoneNumber;
-}
\ No newline at end of file
+
+    // Bumped on every update; documents written before it existed read as null and count as 0
+    @Version
+    private Long version;
+
+    public Member(String id, String name, String email, String phoneNumber) {
+        this(id, name, email, phoneNumber, null);
+    }
+}
@@ -8,10 +8,22 @@ import java.time.Instant;
 
 @Data
 @Document(collection = "refresh_tokens")
+// Indexes are declared in MongoConfig
 public class RefreshToken {
     @Id
     private String id;
+
     private String token;
+
     private String userId;
+
+    // Optional client-supplied label, e.g. "Firefox on laptop"
+    private String deviceName;
+
+    private Instant createdAt;
+
+    private Instant lastUsedAt;
+
+    // TTL index: Mongo removes the document once expiryDate has passed
     private Instant expiryDate;
 } 
\ No newline at end of file
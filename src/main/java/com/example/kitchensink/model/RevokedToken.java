@@ -0,0 +1,30 @@
+package com.example.kitchensink.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An access token revoked before its expiry, identified by its jti claim.
+ * Indexes are declared in MongoConfig.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    private String id;
+
+    private String userId;
+
+    // TTL index: once the token has expired on its own the entry is no longer needed
+    private Instant expiresAt;
+
+    // Nodes without change streams poll for revocations newer than their last sync
+    private Instant revokedAt;
+}
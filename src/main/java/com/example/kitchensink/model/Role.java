@@ -1,6 +1,34 @@
 package com.example.kitchensink.model;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum Role {
     ROLE_USER,
-    ROLE_ADMIN
-} 
\ No newline at end of file
+    ROLE_ADMIN;
+
+    private static final Role[] VALUES = values();
+
+    /**
+     * Packs roles into a bitmask (one bit per ordinal) for compact token claims.
+     * New roles must only ever be appended so existing masks keep their meaning.
+     */
+    public static int toMask(Collection<Role> roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= 1 << role.ordinal();
+        }
+        return mask;
+    }
+
+    public static Set<Role> fromMask(int mask) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : VALUES) {
+            if ((mask & (1 << role.ordinal())) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+}
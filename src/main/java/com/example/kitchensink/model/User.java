@@ -24,6 +24,9 @@ public class User {
     private String password;
     private Set<Role> roles = new HashSet<>();
 
+    // Bumped whenever previously issued access tokens must stop being accepted
+    private long tokenGeneration;
+
     public User(String username, String email, String password) {
         this.username = username;
         this.email = email;
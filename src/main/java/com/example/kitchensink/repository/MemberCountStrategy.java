@@ -0,0 +1,28 @@
+package com.example.kitchensink.repository;
+
+import java.util.Locale;
+
+/**
+ * How a paged member listing reports its total.
+ */
+public enum MemberCountStrategy {
+    /**
+     * Exact total, computed in the same aggregation as the page ($facet). Saves
+     * a round trip, not server work: every member is read to count it.
+     */
+    EXACT,
+    /** Collection metadata count; cheap, but ignores any filter and may lag. */
+    ESTIMATED,
+    /** Per-node counter kept up to date by member writes and periodically reconciled. */
+    CACHED,
+    /** No total; the response only says whether another page follows. */
+    NONE;
+
+    public static MemberCountStrategy fromString(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.kitchensink.repository;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last member of a keyset page: the sort field and direction
+ * the page was read with, plus the last row's sort value and id. Clients only
+ * ever see it as an opaque base64url string.
+ */
+public record MemberCursor(String sortBy, Sort.Direction direction, String value, String id) {
+
+    public String encode() {
+        Document document = new Document("s", sortBy)
+                .append("d", direction.name())
+                .append("v", value)
+                .append("i", id);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static MemberCursor decode(String cursor) {
+        try {
+            Document document = Document.parse(
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            String id = document.getString("i");
+            String sortBy = document.getString("s");
+            if (id == null || sortBy == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new MemberCursor(sortBy, Sort.Direction.valueOf(document.getString("d")),
+                    document.getString("v"), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
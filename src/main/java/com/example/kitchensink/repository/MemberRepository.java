@@ -3,7 +3,7 @@ package com.example.kitchensink.repository;
 import com.example.kitchensink.model.Member;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface MemberRepository extends MongoRepository<Member, String> {
+public interface MemberRepository extends MongoRepository<Member, String>, MemberRepositoryCustom {
     boolean existsByEmail(String email);
 }
 
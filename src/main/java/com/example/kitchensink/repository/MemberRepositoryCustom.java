@@ -0,0 +1,58 @@
+package com.example.kitchensink.repository;
+
+import com.example.kitchensink.model.Member;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface MemberRepositoryCustom {
+
+    /**
+     * Keyset page: up to {@code limit} members ordered by {@code sortBy} then id,
+     * starting right after {@code after} (or from the beginning when null). The
+     * query seeks on the (sortBy, _id) index, so its cost does not grow with depth.
+     * <p>
+     * The {@code fields} parameter of each listing is a projection: when not null, only
+     * those fields (and the id) are read from Mongo and set on the returned members.
+     */
+    List<Member> findPageAfter(String sortBy, Sort.Direction direction, MemberCursor after, int limit,
+                               Set<String> fields);
+
+    /**
+     * Offset page plus the exact total, in one $facet aggregation round trip
+     * instead of a find followed by a separate count. The leading $sort uses
+     * the (sortBy, _id) index, but every member still flows through the $facet
+     * to be counted, so the server-side cost grows with the collection. Members
+     * enter it trimmed to {@code fields}, and are counted on _id alone.
+     */
+    Page<Member> findPageWithTotal(Pageable pageable, Set<String> fields);
+
+    /**
+     * Offset page without any count; one extra row is read to tell whether
+     * another page follows.
+     */
+    Slice<Member> findSlice(Pageable pageable, Set<String> fields);
+
+    long estimatedCount();
+
+    /**
+     * Sets the given fields and increments the version in one findAndModify
+     * round trip. With an expected version the update only applies while the
+     * stored version still matches (a missing version counts as 0).
+     *
+     * @return the updated member, or null when no member matched
+     */
+    Member updateIfMatches(String id, Long expectedVersion, Map<String, Object> changes);
+
+    /**
+     * Deletes the member with one deleteOne, guarded like {@link #updateIfMatches}.
+     *
+     * @return whether a member was deleted
+     */
+    boolean deleteIfMatches(String id, Long expectedVersion);
+}
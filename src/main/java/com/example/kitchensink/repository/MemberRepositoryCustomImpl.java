@@ -0,0 +1,181 @@
+package com.example.kitchensink.repository;
+
+import com.example.kitchensink.model.Member;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<Member> findPageAfter(String sortBy, Sort.Direction direction, MemberCursor after, int limit,
+                                      Set<String> fields) {
+        Query query = new Query();
+        if (fields != null) {
+            query.fields().include(projected(fields));
+            // The next cursor is built from the last row's sort value
+            query.fields().include(sortBy);
+        }
+        if (after != null) {
+            query.addCriteria(seekCriteria(sortBy, direction, after));
+        }
+        query.with(Sort.by(direction, sortBy).and(Sort.by(direction, "_id")));
+        query.limit(limit);
+        return mongoTemplate.find(query, Member.class);
+    }
+
+    @Override
+    public Page<Member> findPageWithTotal(Pageable pageable, Set<String> fields) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        // Sort ahead of the $facet: the top-level stage walks the (sortBy, _id) index instead of
+        // sorting in memory, while sub-pipelines cannot use indexes at all
+        if (pageable.getSort().isSorted()) {
+            operations.add(Aggregation.sort(pageable.getSort()));
+        }
+        // Every member enters the $facet to be counted, so trim them to the requested fields
+        // first; the count branch then needs only _id
+        if (fields != null) {
+            operations.add(Aggregation.project(projected(fields)));
+        }
+        operations.add(Aggregation.facet(
+                        Aggregation.skip(pageable.getOffset()),
+                        Aggregation.limit(pageable.getPageSize()))
+                .as("content")
+                .and(Aggregation.project("_id"), Aggregation.count().as("total"))
+                .as("total"));
+        TypedAggregation<Member> aggregation = Aggregation.newAggregation(Member.class, operations);
+
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return Page.empty(pageable);
+        }
+        List<Member> content = result.getList("content", Document.class).stream()
+                .map(document -> mongoTemplate.getConverter().read(Member.class, document))
+                .toList();
+        List<Document> total = result.getList("total", Document.class);
+        long totalElements = total.isEmpty() ? 0 : ((Number) total.get(0).get("total")).longValue();
+        return new PageImpl<>(content, pageable, totalElements);
+    }
+
+    @Override
+    public Slice<Member> findSlice(Pageable pageable, Set<String> fields) {
+        Query query = new Query()
+                .with(pageable.getSort())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1);
+        if (fields != null) {
+            query.fields().include(projected(fields));
+        }
+        List<Member> members = mongoTemplate.find(query, Member.class);
+        boolean hasNext = members.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? members.subList(0, pageable.getPageSize()) : members, pageable, hasNext);
+    }
+
+    @Override
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(Member.class);
+    }
+
+    @Override
+    public Member updateIfMatches(String id, Long expectedVersion, Map<String, Object> changes) {
+        Update update = new Update().inc("version", 1);
+        changes.forEach(update::set);
+        Member updated = mongoTemplate.findAndModify(versionedQuery(id, expectedVersion), update,
+                FindAndModifyOptions.options().returnNew(true), Member.class);
+        if (updated != null) {
+            // findAndModify raises no lifecycle events; listeners expect one for every write
+            Document document = new Document();
+            mongoTemplate.getConverter().write(updated, document);
+            eventPublisher.publishEvent(new AfterSaveEvent<>(updated, document,
+                    mongoTemplate.getCollectionName(Member.class)));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean deleteIfMatches(String id, Long expectedVersion) {
+        Query query = versionedQuery(id, expectedVersion);
+        Document filter = new QueryMapper(mongoTemplate.getConverter()).getMappedObject(query.getQueryObject(),
+                mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Member.class));
+        // Straight to the driver: MongoTemplate.remove reports a delete to listeners even when nothing matched
+        long deleted = mongoTemplate.execute(Member.class, collection -> collection.deleteOne(filter).getDeletedCount());
+        if (deleted == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new AfterDeleteEvent<>(new Document("_id", id), Member.class,
+                mongoTemplate.getCollectionName(Member.class)));
+        return true;
+    }
+
+    private static Query versionedQuery(String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            criteria = expectedVersion == 0
+                    ? criteria.and("version").in(0L, null)
+                    : criteria.and("version").is(expectedVersion);
+        }
+        return Query.query(criteria);
+    }
+
+    private static String[] projected(Set<String> fields) {
+        // An empty projection would return whole documents; ask for the id alone instead
+        return fields.isEmpty() ? new String[] {"_id"} : fields.toArray(String[]::new);
+    }
+
+    /**
+     * Rows strictly after the cursor in (sortBy, _id) order, written as a range
+     * on the sort field plus a tie-break on _id so Mongo scans a single index
+     * range. Null sort values order before every string, so they are handled
+     * explicitly.
+     */
+    private static Criteria seekCriteria(String sortBy, Sort.Direction direction, MemberCursor after) {
+        String value = after.value();
+        if (direction.isAscending()) {
+            if (value == null) {
+                return new Criteria().orOperator(
+                        Criteria.where(sortBy).ne(null),
+                        Criteria.where(sortBy).is(null).and("_id").gt(after.id()));
+            }
+            return new Criteria().andOperator(
+                    Criteria.where(sortBy).gte(value),
+                    new Criteria().orOperator(Criteria.where(sortBy).gt(value), Criteria.where("_id").gt(after.id())));
+        }
+
+        if (value == null) {
+            return Criteria.where(sortBy).is(null).and("_id").lt(after.id());
+        }
+        return new Criteria().orOperator(
+                new Criteria().andOperator(
+                        Criteria.where(sortBy).lte(value),
+                        new Criteria().orOperator(Criteria.where(sortBy).lt(value), Criteria.where("_id").lt(after.id()))),
+                Criteria.where(sortBy).is(null));
+    }
+}
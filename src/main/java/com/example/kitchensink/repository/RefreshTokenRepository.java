@@ -7,6 +7,5 @@ import java.util.Optional;
 
 public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
     Optional<RefreshToken> findByToken(String token);
-    Optional<RefreshToken> findByUserId(String userId);
     void deleteByUserId(String userId);
 } 
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.example.kitchensink.security;
 
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.example.kitchensink.service.TokenGenerationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +18,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
@@ -25,6 +29,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenGenerationService tokenGenerationService;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Value("${app.jwtStatelessPrincipal:false}")
+    private boolean statelessPrincipal;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -32,17 +45,24 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             String jwt = parseJwt(request);
             logger.info("Received Authorization header: " + request.getHeader("Authorization"));
             
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Optional<Claims> claims = jwt != null ? jwtUtils.parseValidClaims(jwt) : Optional.empty();
+            if (claims.isPresent() && tokenRevocationList.isRevoked(claims.get().getId())) {
+                logger.debug("JWT token {} has been revoked", claims.get().getId());
+            } else if (claims.isPresent()) {
+                String username = claims.get().getSubject();
                 logger.debug("JWT token validated for user: {}", username);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                UserDetails userDetails = resolveUserDetails(claims.get(), username);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.debug("Authentication set in SecurityContext for user: {}", username);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    logger.debug("Authentication set in SecurityContext for user: {}", username);
+                } else {
+                    logger.debug("JWT token for user {} has been revoked", username);
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
@@ -51,6 +71,26 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * In stateless mode the principal is rebuilt from the token claims and only the
+     * user's token generation is checked, instead of loading the user from Mongo.
+     * Returns null when the token was issued under an older generation.
+     */
+    private UserDetails resolveUserDetails(Claims claims, String username) {
+        UserDetailsImpl principal = jwtUtils.getUserDetailsFromClaims(claims);
+        if (statelessPrincipal && principal != null) {
+            return tokenGenerationService.isCurrent(principal.getId(), principal.getTokenGeneration())
+                    ? principal : null;
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (principal != null && userDetails instanceof UserDetailsImpl loaded
+                && loaded.getTokenGeneration() != principal.getTokenGeneration()) {
+            return null;
+        }
+        return userDetails;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -1,5 +1,6 @@
 package com.example.kitchensink.security;
 
+import com.example.kitchensink.model.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
@@ -11,53 +12,95 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLES = "rol";
+    static final String CLAIM_GENERATION = "gen";
+
+    // Generous upper bound for a compact HS512 token; anything longer is rejected before parsing
+    private static final int MAX_TOKEN_LENGTH = 8192;
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    @Value("${app.jwtVerifiedCacheSize:10000}")
+    private int jwtVerifiedCacheSize = 10000;
+
+    private volatile SigningContext signingContext;
+
+    private volatile VerifiedTokenCache verifiedTokens;
 
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-        return generateTokenFromUsername(userPrincipal.getUsername());
+        return generateTokenFromUserDetails(userPrincipal);
     }
 
     public String generateTokenFromUsername(String username) {
+        return tokenBuilder(username).compact();
+    }
+
+    /**
+     * Issues a token that also carries the user id, a role bitmask and the user's
+     * token generation, so the request filter can rebuild the principal from the
+     * token alone.
+     */
+    public String generateTokenFromUserDetails(UserDetailsImpl userDetails) {
+        return tokenBuilder(userDetails.getUsername())
+                .claim(CLAIM_USER_ID, userDetails.getId())
+                .claim(CLAIM_ROLES, Role.toMask(userDetails.getRoles()))
+                .claim(CLAIM_GENERATION, userDetails.getTokenGeneration())
+                .compact();
+    }
+
+    /**
+     * Rebuilds the principal from verified claims, or returns null for tokens
+     * issued without the principal claims.
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        Number roles = claims.get(CLAIM_ROLES, Number.class);
+        Number generation = claims.get(CLAIM_GENERATION, Number.class);
+        if (userId == null || roles == null || generation == null) {
+            return null;
+        }
+        return UserDetailsImpl.fromClaims(userId, claims.getSubject(), roles.intValue(), generation.longValue());
+    }
+
+    private JwtBuilder tokenBuilder(String username) {
+        Date now = new Date();
         return Jwts.builder()
+                .setId(SecureTokenGenerator.nextId())
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(signingContext().key(), SignatureAlgorithm.HS512);
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseValidClaims(authToken).isPresent();
+    }
+
+    /**
+     * Verifies the token and returns its claims, or empty if the token is invalid.
+     * This is the single verification entry point for request authentication: the
+     * signature is checked once and the claims are reused by the caller.
+     */
+    public Optional<Claims> parseValidClaims(String authToken) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
-        } catch (SecurityException e) {
+            return Optional.of(parseClaims(authToken));
+        } catch (SecurityException | io.jsonwebtoken.security.SecurityException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
@@ -69,6 +112,83 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Verifies the token and returns its claims, throwing the usual jjwt exceptions
+     * on failure. Tokens that were verified earlier and have not yet expired are
+     * served from an in-memory cache without repeating the signature check.
+     */
+    public Claims parseClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+        if (!isWellFormed(token)) {
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters "
+                    + "and only base64url-encoded segments.");
+        }
+
+        SigningContext context = signingContext();
+        long now = System.currentTimeMillis();
+        VerifiedTokenCache cache = verifiedTokens;
+        Claims cached = cache.get(token, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = context.parser().parseClaimsJws(token).getBody();
+        cache.put(token, claims, now);
+        return claims;
+    }
+
+    /**
+     * Cheap structural check run before any base64 decoding or HMAC work: a signed
+     * compact JWS is three non-empty base64url segments separated by two periods.
+     */
+    static boolean isWellFormed(String token) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+        int periods = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++periods > 2) {
+                    return false;
+                }
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                return false;
+            }
+        }
+        return periods == 2 && segmentLength > 0;
+    }
+
+    private SigningContext signingContext() {
+        SigningContext context = signingContext;
+        String secret = jwtSecret;
+        if (context == null || !context.secret().equals(secret)) {
+            synchronized (this) {
+                context = signingContext;
+                if (context == null || !context.secret().equals(secret)) {
+                    SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+                    JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+                    context = new SigningContext(secret, key, parser);
+                    // Tokens verified under a previous key must be checked again
+                    verifiedTokens = new VerifiedTokenCache(jwtVerifiedCacheSize);
+                    signingContext = context;
+                }
+            }
+        }
+        return context;
+    }
+
+    private record SigningContext(String secret, SecretKey key, JwtParser parser) {
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package com.example.kitchensink.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks a BCrypt work factor for the current hardware. Each extra unit of
+ * strength doubles the cost, so the time measured at the minimum strength is
+ * enough to extrapolate the highest strength that still meets the target.
+ */
+public final class PasswordEncoderCalibrator {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderCalibrator.class);
+
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private PasswordEncoderCalibrator() {
+    }
+
+    public static int calibrateBcryptStrength(long targetMillis, int minStrength, int maxStrength) {
+        double baselineMillis = measureBcryptMillis(minStrength);
+        int strength = minStrength;
+        double expectedMillis = baselineMillis;
+        while (strength < maxStrength && expectedMillis * 2 <= targetMillis) {
+            strength++;
+            expectedMillis *= 2;
+        }
+        logger.info("Calibrated BCrypt strength {} (~{} ms per hash, target {} ms, {} ms at strength {})",
+                strength, Math.round(expectedMillis), targetMillis, Math.round(baselineMillis), minStrength);
+        return strength;
+    }
+
+    static double measureBcryptMillis(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        // First run warms up the JIT and is discarded
+        encoder.encode(SAMPLE_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+}
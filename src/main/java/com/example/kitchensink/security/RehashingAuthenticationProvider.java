@@ -0,0 +1,31 @@
+package com.example.kitchensink.security;
+
+import com.example.kitchensink.service.PasswordUpgradeService;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * After a successful login, schedules an asynchronous rehash when the stored
+ * password uses an outdated algorithm or work factor, so the login itself does
+ * not pay for a second hash.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordUpgradeService passwordUpgradeService;
+
+    public RehashingAuthenticationProvider(PasswordUpgradeService passwordUpgradeService) {
+        this.passwordUpgradeService = passwordUpgradeService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (user instanceof UserDetailsImpl details && authentication.getCredentials() != null
+                && getPasswordEncoder().upgradeEncoding(user.getPassword())) {
+            passwordUpgradeService.upgradePassword(details.getId(),
+                    authentication.getCredentials().toString(), user.getPassword());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.kitchensink.security;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Generates opaque, URL-safe session tokens with 256 bits of entropy, and
+ * shorter 128-bit identifiers for JWT ids.
+ * <p>
+ * {@code UUID.randomUUID()} draws from one shared SecureRandom, which becomes a
+ * point of contention under login bursts. Tokens here come from a fixed pool of
+ * thread-safe DRBG instances, about one per core, picked by thread id. A
+ * per-thread instance would be seeded afresh for every request once requests
+ * run on virtual threads, each of which is used only once.
+ */
+public final class SecureTokenGenerator {
+    private static final int TOKEN_BYTES = 32;
+    private static final int ID_BYTES = 16;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final SecureRandom[] RANDOMS = newRandoms();
+
+    private SecureTokenGenerator() {
+    }
+
+    public static String nextToken() {
+        return randomString(TOKEN_BYTES);
+    }
+
+    public static String nextId() {
+        return randomString(ID_BYTES);
+    }
+
+    private static String randomString(int length) {
+        byte[] bytes = new byte[length];
+        long threadId = Thread.currentThread().threadId();
+        RANDOMS[(int) (threadId ^ (threadId >>> 32)) & (RANDOMS.length - 1)].nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    private static SecureRandom[] newRandoms() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        SecureRandom[] randoms = new SecureRandom[Integer.highestOneBit(Math.max(1, processors - 1)) << 1];
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = newRandom();
+        }
+        return randoms;
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
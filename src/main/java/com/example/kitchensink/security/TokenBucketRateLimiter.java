@@ -0,0 +1,152 @@
+package com.example.kitchensink.security;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * In-memory token buckets keyed by an arbitrary string (client IP, username).
+ * <p>
+ * Keys are spread over lock stripes so concurrent requests for different keys
+ * rarely contend. Each stripe keeps its buckets in access order, which makes
+ * idle-key eviction a cheap check of the least recently used entries, and caps
+ * its size so a flood of distinct keys cannot grow memory without bound.
+ * <p>
+ * When a full stripe needs room for a new key, a bucket that has refilled
+ * completely is evicted first, since it is no different from a new one.
+ * Failing that, the least recently used bucket goes. New keys are never turned
+ * away: refusing them would let a spray of random keys that drains a stripe
+ * lock every later IP or username out. The cost is that a drained bucket can be
+ * reset, but only by pushing a stripe's worth of fresh keys through it first.
+ */
+public class TokenBucketRateLimiter {
+    private static final int IDLE_EVICTIONS_PER_CALL = 4;
+    private static final int REPLACEMENT_CANDIDATES = 8;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long idleNanos;
+    private final int maxKeysPerStripe;
+    private final Stripe[] stripes;
+
+    public TokenBucketRateLimiter(int capacity, double tokensPerSecond, Duration idleTimeout, int maxKeys) {
+        this(capacity, tokensPerSecond, idleTimeout, maxKeys, 64);
+    }
+
+    public TokenBucketRateLimiter(int capacity, double tokensPerSecond, Duration idleTimeout, int maxKeys,
+                                  int stripeCount) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        int stripes = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        // A bucket idle for longer than a full refill is indistinguishable from a new one
+        long refillNanos = (long) Math.ceil(capacity / tokensPerNano);
+        this.idleNanos = Math.max(idleTimeout.toNanos(), refillNanos);
+        this.maxKeysPerStripe = Math.max(1, maxKeys / stripes);
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes one token from the key's bucket. Returns 0 when the request is
+     * allowed, otherwise the number of nanoseconds until a token is available.
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long nowNanos) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.tryAcquire(key, nowNanos);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long updatedAt;
+
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private final class Stripe extends LinkedHashMap<String, Bucket> {
+        Stripe() {
+            super(16, 0.75f, true);
+        }
+
+        long tryAcquire(String key, long now) {
+            evictIdle(now);
+
+            Bucket bucket = get(key);
+            if (bucket == null) {
+                if (size() >= maxKeysPerStripe) {
+                    evictOne(now);
+                }
+                bucket = new Bucket(capacity, now);
+                put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+                bucket.updatedAt = now;
+            }
+
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / tokensPerNano));
+        }
+
+        private void evictIdle(long now) {
+            Iterator<Bucket> eldest = values().iterator();
+            for (int i = 0; i < IDLE_EVICTIONS_PER_CALL && eldest.hasNext(); i++) {
+                if (now - eldest.next().updatedAt < idleNanos) {
+                    return;
+                }
+                eldest.remove();
+            }
+        }
+
+        /**
+         * Makes room for a new key by evicting a bucket, among the least recently
+         * used few, that has refilled completely, or else the least recently used.
+         */
+        private void evictOne(long now) {
+            Iterator<Bucket> eldest = values().iterator();
+            for (int i = 0; i < REPLACEMENT_CANDIDATES && eldest.hasNext(); i++) {
+                Bucket candidate = eldest.next();
+                if (candidate.tokens + (now - candidate.updatedAt) * tokensPerNano >= capacity) {
+                    eldest.remove();
+                    return;
+                }
+            }
+            eldest = values().iterator();
+            if (eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.kitchensink.security;
+
+import com.example.kitchensink.model.RevokedToken;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access tokens revoked before their expiry, keyed by jti. Lookups go through a
+ * Bloom filter first, so the common case (token not revoked) costs a few hashes
+ * and no map access; positives are confirmed against the exact set.
+ * <p>
+ * Revocations are persisted to Mongo and reach the other nodes through a change
+ * stream on {@code revoked_tokens}. The initial load runs only once the stream's
+ * cursor is open, so a revocation written while it opens is seen by one or the
+ * other. If the stream fails after delivering
+ * events, it is reopened from the last resume token, so nothing revoked
+ * meanwhile is missed. Where change streams are unavailable (a standalone
+ * server), or the stream cannot be resumed, each node polls for new
+ * revocations instead; that fallback is logged as an error and counted in
+ * {@code auth.revocation.stream.failures}, since a revocation can then take up
+ * to a poll interval to apply on other nodes. Entries are
+ * pruned once the token would have expired anyway, and the filter is rebuilt
+ * from the remaining set.
+ */
+@Component
+public class TokenRevocationList {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Value("${app.jwtRevocationExpectedEntries:100000}")
+    private int expectedEntries = 100000;
+
+    @Value("${app.jwtRevocationSyncIntervalMs:30000}")
+    private long syncIntervalMs = 30000;
+
+    @Value("${app.jwtRevocationStreamRetryMs:1000}")
+    private long streamRetryMs = 1000;
+
+    @Value("${app.jwtRevocationStreamStartTimeoutMs:5000}")
+    private long streamStartTimeoutMs = 5000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // jti -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    private volatile boolean changeStreamActive;
+
+    // Token of the last change stream event, to reopen the stream after a failure
+    private volatile BsonDocument resumeToken;
+
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    private MessageListenerContainer changeStreamContainer;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.gauge("auth.revocation.stream.active", this, list -> list.changeStreamActive ? 1 : 0);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        changeStreamContainer = new DefaultMessageListenerContainer(mongoTemplate);
+        changeStreamContainer.start();
+        connect();
+
+        scheduler.scheduleWithFixedDelay(this::maintain, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (changeStreamContainer != null) {
+            changeStreamContainer.stop();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && filter().mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * Revokes the token on this node immediately and persists the revocation for
+     * the other nodes.
+     */
+    public void revoke(String jti, String userId, Date expiresAt) {
+        markRevoked(jti, expiresAt.getTime());
+        mongoTemplate.save(new RevokedToken(jti, userId, expiresAt.toInstant(), Instant.now()));
+    }
+
+    /**
+     * Records a revocation locally without persisting it.
+     */
+    public synchronized void markRevoked(String jti, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revoked.putIfAbsent(jti, expiresAtMillis) == null) {
+            filter().put(jti);
+        }
+    }
+
+    /**
+     * Drops revocations of tokens that have expired and rebuilds the filter from
+     * what remains, growing it if the set outgrew the expected size.
+     */
+    public synchronized void prune() {
+        long now = System.currentTimeMillis();
+        boolean removed = revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        BloomFilter current = filter();
+        if (!removed && revoked.size() <= current.capacity()) {
+            return;
+        }
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Opens the change stream and then loads every live revocation. The load waits
+     * for the stream's cursor: a revocation written before the cursor opens is
+     * found by the load, and one written after it is delivered by the stream.
+     */
+    void connect() {
+        openChangeStream(null);
+        try {
+            loadSince(Instant.EPOCH);
+        } catch (Exception e) {
+            logger.warn("Could not load revoked tokens, retrying in the background: {}", e.getMessage());
+        }
+    }
+
+    void maintain() {
+        try {
+            if (!changeStreamActive) {
+                // Overlap the previous window to tolerate clock skew between nodes
+                loadSince(lastSync.minusMillis(syncIntervalMs));
+            }
+            prune();
+        } catch (Exception e) {
+            logger.warn("Revoked token sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void loadSince(Instant since) {
+        Instant startedAt = Instant.now();
+        Query query = Query.query(Criteria.where("revokedAt").gte(since).and("expiresAt").gt(startedAt));
+        for (RevokedToken token : mongoTemplate.find(query, RevokedToken.class)) {
+            markRevoked(token.getId(), token.getExpiresAt().toEpochMilli());
+        }
+        lastSync = startedAt;
+    }
+
+    private void openChangeStream(BsonDocument resumeAfter) {
+        try {
+            MessageListener<ChangeStreamDocument<Document>, RevokedToken> listener = this::onChange;
+            ChangeStreamRequest.ChangeStreamRequestBuilder<RevokedToken> request = ChangeStreamRequest.builder(listener)
+                    .collection(mongoTemplate.getCollectionName(RevokedToken.class))
+                    .filter(Aggregation.newAggregation(
+                            Aggregation.match(Criteria.where("operationType").in("insert", "replace"))));
+            if (resumeAfter != null) {
+                request.resumeAfter(resumeAfter);
+            }
+            Subscription subscription = changeStreamContainer.register(request.build(), RevokedToken.class,
+                    this::onChangeStreamError);
+            // register() only schedules the cursor; polling stays on until it is actually open
+            if (!subscription.await(Duration.ofMillis(streamStartTimeoutMs))) {
+                subscription.cancel();
+                fallBackToPolling("did not start within " + streamStartTimeoutMs + " ms");
+                return;
+            }
+            // A stream that failed to open has already been handed to onChangeStreamError
+            if (subscription.isActive()) {
+                changeStreamActive = true;
+                // It may have failed, and run the error handler, between the check and the flag being set
+                if (!subscription.isActive()) {
+                    changeStreamActive = false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            changeStreamActive = false;
+            fallBackToPolling(e.getMessage());
+        }
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, RevokedToken> message) {
+        ChangeStreamDocument<Document> change = message.getRaw();
+        if (change != null && change.getResumeToken() != null) {
+            resumeToken = change.getResumeToken();
+        }
+        RevokedToken token = message.getBody();
+        if (token != null && token.getExpiresAt() != null) {
+            markRevoked(token.getId(), token.getExpiresAt().toEpochMilli());
+        }
+    }
+
+    void onChangeStreamError(Throwable error) {
+        changeStreamActive = false;
+        BsonDocument token = resumeToken;
+        resumeToken = null;
+        if (token != null) {
+            // Polling covers the gap until the resumed stream replays what it missed
+            meterRegistry.counter("auth.revocation.stream.failures", "action", "resume").increment();
+            logger.warn("Revoked token change stream failed, resuming in {} ms: {}", streamRetryMs,
+                    error.getMessage());
+            scheduler.schedule(() -> openChangeStream(token), streamRetryMs, TimeUnit.MILLISECONDS);
+        } else {
+            fallBackToPolling(error.getMessage());
+        }
+    }
+
+    private void fallBackToPolling(String reason) {
+        meterRegistry.counter("auth.revocation.stream.failures", "action", "poll").increment();
+        logger.error("Revoked token change stream unavailable, polling every {} ms instead; revocations on "
+                + "other nodes may take that long to apply here: {}", syncIntervalMs, reason);
+    }
+
+    private BloomFilter filter() {
+        BloomFilter current = filter;
+        if (current == null) {
+            synchronized (this) {
+                current = filter;
+                if (current == null) {
+                    current = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+                    filter = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.kitchensink.security;
+
+import com.example.kitchensink.model.User;
+import com.example.kitchensink.service.TokenGenerationService;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached user state whenever a User is saved or deleted through the
+ * repository, e.g. on registration or role changes.
+ */
+@Component
+public class UserCacheEvictionListener extends AbstractMongoEventListener<User> {
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private TokenGenerationService tokenGenerationService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        User user = event.getSource();
+        userDetailsService.evict(user);
+        if (user.getId() != null) {
+            tokenGenerationService.evict(user.getId());
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        Document filter = event.getSource();
+        Object id = filter.get("_id");
+        if (id != null) {
+            userDetailsService.evictById(id.toString());
+            tokenGenerationService.evict(id.toString());
+        } else {
+            userDetailsService.evictAll();
+        }
+    }
+}
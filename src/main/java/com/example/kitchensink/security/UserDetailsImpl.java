@@ -1,48 +1,107 @@
 package com.example.kitchensink.security;
 
+import com.example.kitchensink.model.Role;
 import com.example.kitchensink.model.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.Data;
 
+/**
+ * Immutable principal. Instances are shared through the user details cache, so
+ * fields are final and role authorities come from a fixed set of shared lists.
+ */
 @Data
 public class UserDetailsImpl implements UserDetails {
     private static final long serialVersionUID = 1L;
 
-    private String id;
-    private String username;
-    private String email;
+    // One immutable authority list per role combination, indexed by Role.toMask
+    private static final List<List<GrantedAuthority>> AUTHORITIES_BY_ROLE_MASK = buildAuthoritiesByRoleMask();
+
+    private final String id;
+    private final String username;
+    private final String email;
     @JsonIgnore
-    private String password;
-    private Collection<? extends GrantedAuthority> authorities;
+    private final String password;
+    private final Collection<? extends GrantedAuthority> authorities;
+    private final long tokenGeneration;
 
     public UserDetailsImpl(String id, String username, String email, String password,
                          Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, authorities, 0L);
+    }
+
+    public UserDetailsImpl(String id, String username, String email, String password,
+                         Collection<? extends GrantedAuthority> authorities, long tokenGeneration) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.tokenGeneration = tokenGeneration;
     }
 
     public static UserDetailsImpl build(User user) {
-        List<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.name()))
-                .collect(Collectors.toList());
-
         return new UserDetailsImpl(
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authoritiesFor(Role.toMask(user.getRoles())),
+                user.getTokenGeneration());
+    }
+
+    /**
+     * Builds a principal from verified token claims without touching the database.
+     * Email and password are not carried in the token and are left null.
+     */
+    public static UserDetailsImpl fromClaims(String id, String username, int roleMask, long tokenGeneration) {
+        return new UserDetailsImpl(id, username, null, null, authoritiesFor(roleMask), tokenGeneration);
+    }
+
+    static List<GrantedAuthority> authoritiesFor(int roleMask) {
+        if (roleMask < 0 || roleMask >= AUTHORITIES_BY_ROLE_MASK.size()) {
+            throw new IllegalArgumentException("Unknown role mask: " + roleMask);
+        }
+        return AUTHORITIES_BY_ROLE_MASK.get(roleMask);
+    }
+
+    private static List<List<GrantedAuthority>> buildAuthoritiesByRoleMask() {
+        Map<Role, GrantedAuthority> interned = new EnumMap<>(Role.class);
+        for (Role role : Role.values()) {
+            interned.put(role, new SimpleGrantedAuthority(role.name()));
+        }
+        List<List<GrantedAuthority>> lists = new ArrayList<>();
+        for (int mask = 0; mask < 1 << Role.values().length; mask++) {
+            lists.add(Role.fromMask(mask).stream()
+                    .map(interned::get)
+                    .collect(Collectors.toUnmodifiableList()));
+        }
+        return List.copyOf(lists);
+    }
+
+    @JsonIgnore
+    public Set<Role> getRoles() {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (GrantedAuthority authority : authorities) {
+            for (Role role : Role.values()) {
+                if (role.name().equals(authority.getAuthority())) {
+                    roles.add(role);
+                }
+            }
+        }
+        return roles;
     }
 
     @Override
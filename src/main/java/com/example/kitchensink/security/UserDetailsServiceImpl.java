@@ -2,33 +2,159 @@ package com.example.kitchensink.security;
 
 import com.example.kitchensink.model.User;
 import com.example.kitchensink.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Loads users by username or email through a read-through cache. Saves and deletes
+ * evict the cache of the node that made them; other nodes keep serving the old
+ * details, roles included, for up to {@code app.userDetailsCacheTtlMs}.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Value("${app.userDetailsCacheMaxSize:10000}")
+    private long cacheMaxSize = 10000;
+
+    @Value("${app.userDetailsCacheTtlMs:300000}")
+    private long cacheTtlMs = 300000;
+
+    // Keyed by both email and username; values are immutable and safe to share
+    private volatile Cache<String, UserDetailsImpl> cache;
+
+    // Cache keys per user id, so a user's entries are found without scanning the cache.
+    // Each set is only read or changed inside compute() for its id.
+    private final ConcurrentMap<String, Set<String>> keysById = new ConcurrentHashMap<>();
+
+    // Bumped before every eviction, so a load that overlapped one can tell its read may be stale
+    private final AtomicLong evictions = new AtomicLong();
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
+        UserDetailsImpl cached = getCache().getIfPresent(login);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = evictions.get();
+        UserDetailsImpl userDetails = UserDetailsImpl.build(findUser(login));
+        cache(userDetails.getUsername(), userDetails);
+        if (userDetails.getEmail() != null) {
+            cache(userDetails.getEmail(), userDetails);
+        }
+        // An eviction that ran during the read may have found nothing to evict; drop what
+        // was cached here instead, so the eviction wins either way
+        if (evictions.get() != generation) {
+            getCache().invalidate(userDetails.getUsername());
+            if (userDetails.getEmail() != null) {
+                getCache().invalidate(userDetails.getEmail());
+            }
+        }
+        return userDetails;
+    }
+
+    private void cache(String key, UserDetailsImpl userDetails) {
+        // Indexed first, so an entry never sits in the cache without its index entry
+        if (userDetails.getId() != null) {
+            keysById.compute(userDetails.getId(), (id, keys) -> {
+                Set<String> updated = keys != null ? keys : new HashSet<>();
+                updated.add(key);
+                return updated;
+            });
+        }
+        getCache().put(key, userDetails);
+    }
+
+    private void unindex(String key, UserDetailsImpl userDetails, RemovalCause cause) {
+        // A replaced entry's key still holds the new value
+        if (cause == RemovalCause.REPLACED || userDetails == null || userDetails.getId() == null) {
+            return;
+        }
+        keysById.computeIfPresent(userDetails.getId(), (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Drops every cached entry for the user, under the current username and email
+     * as well as any stale keys left behind by a rename.
+     */
+    public void evict(User user) {
+        evictions.incrementAndGet();
+        if (user.getUsername() != null) {
+            getCache().invalidate(user.getUsername());
+        }
+        if (user.getEmail() != null) {
+            getCache().invalidate(user.getEmail());
+        }
+        if (user.getId() != null) {
+            evictById(user.getId());
+        }
+    }
+
+    public void evictById(String userId) {
+        evictions.incrementAndGet();
+        Set<String> keys = keysById.remove(userId);
+        if (keys != null) {
+            getCache().invalidateAll(keys);
+        }
+    }
+
+    public void evictAll() {
+        evictions.incrementAndGet();
+        getCache().invalidateAll();
+    }
+
+    public Cache<String, UserDetailsImpl> getCache() {
+        Cache<String, UserDetailsImpl> current = cache;
+        if (current == null) {
+            synchronized (this) {
+                current = cache;
+                if (current == null) {
+                    current = Caffeine.newBuilder()
+                            .maximumSize(cacheMaxSize)
+                            .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                            // Run on the removing thread, so the index never lags behind the cache
+                            .executor(Runnable::run)
+                            .<String, UserDetailsImpl>removalListener(this::unindex)
+                            .recordStats()
+                            .build();
+                    cache = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private User findUser(String login) {
         // Try to find by email first
         Optional<User> userByEmail = userRepository.findByEmail(login);
         if (userByEmail.isPresent()) {
-            return UserDetailsImpl.build(userByEmail.get());
+            return userByEmail.get();
         }
 
         // If not found by email, try username
-        User user = userRepository.findByUsername(login)
+        return userRepository.findByUsername(login)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with login: " + login));
-
-        return UserDetailsImpl.build(user);
     }
-} 
\ No newline at end of file
+}
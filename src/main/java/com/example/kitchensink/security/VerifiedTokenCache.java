@@ -0,0 +1,98 @@
+package com.example.kitchensink.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of access tokens whose signature has already been verified.
+ * Entries are only served while the token is unexpired and leave the cache when
+ * it does; past the size limit Caffeine evicts the least useful ones. Each
+ * entry is an immutable snapshot of the claims, and every hit gets its own copy,
+ * so no caller can change what another caller sees. Entries are keyed on the
+ * SHA-256 of the token, so the cache holds 32 bytes per token rather than the
+ * bearer token itself.
+ */
+class VerifiedTokenCache {
+
+    private final Cache<TokenDigest, Entry> entries;
+
+    VerifiedTokenCache(int maxEntries) {
+        this.entries = maxEntries <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<TokenDigest, Entry>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest token, Entry entry, long currentTime) {
+                        long remainingMillis = Math.max(0, entry.expiresAt() - System.currentTimeMillis());
+                        return TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest token, Entry entry, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(token, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest token, Entry entry, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    Claims get(String token, long nowMillis) {
+        if (entries == null) {
+            return null;
+        }
+        TokenDigest key = TokenDigest.of(token);
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= nowMillis) {
+            entries.asMap().remove(key, entry);
+            return null;
+        }
+        return Jwts.claims(entry.claims());
+    }
+
+    void put(String token, Claims claims, long nowMillis) {
+        Date expiration = claims.getExpiration();
+        if (entries == null || expiration == null || expiration.getTime() <= nowMillis) {
+            return;
+        }
+        entries.put(TokenDigest.of(token), new Entry(Map.copyOf(claims), expiration.getTime()));
+    }
+
+    /**
+     * SHA-256 of a token held as four longs, so equality and hashing need no array copies.
+     */
+    private record TokenDigest(long a, long b, long c, long d) {
+
+        static TokenDigest of(String token) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+
+    private record Entry(Map<String, Object> claims, long expiresAt) {
+    }
+}
@@ -18,6 +18,8 @@ public class DataMigrationService {
         userRepository.findAll().forEach(user -> {
             if (!user.getRoles().contains(Role.ROLE_ADMIN)) {
                 user.getRoles().add(Role.ROLE_ADMIN);
+                // Tokens issued with the old roles must not outlive the change
+                user.setTokenGeneration(user.getTokenGeneration() + 1);
                 userRepository.save(user);
             }
         });
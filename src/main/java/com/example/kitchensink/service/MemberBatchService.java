@@ -0,0 +1,296 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.CreateMemberRequest;
+import com.example.kitchensink.dto.MemberBatchRequest;
+import com.example.kitchensink.dto.MemberBatchResponse;
+import com.example.kitchensink.dto.MemberChangeEvent;
+import com.example.kitchensink.dto.MemberBatchResponse.Status;
+import com.example.kitchensink.dto.UpdateMemberRequest;
+import com.example.kitchensink.exception.DuplicateResourceException;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.example.kitchensink.validation.BulkValidation;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs a list of member creates, updates and deletes as one unordered bulk
+ * write. The driver sends each run of creates, updates and deletes as its own
+ * command, so a mixed batch takes up to three round trips, not one per
+ * operation. Updates and deletes address members by id directly instead of
+ * loading them first.
+ * <p>
+ * An unordered bulk write does not keep the order of operations, so each
+ * member id may appear only once in a batch; repeats are reported as INVALID.
+ * <p>
+ * Mongo reports matched and deleted counts for the bulk write as a whole, not
+ * per operation. When every update matched, or none did, the count alone says
+ * which ids were missing. Only when some but not all matched does one extra
+ * query find out which, so a batch costs at most four round trips. Deletes
+ * are idempotent: a delete of an unknown id is reported as DELETED, and the
+ * response's {@code deleted} count says how many members were actually removed.
+ */
+@Service
+public class MemberBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(MemberBatchService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MemberMapper memberMapper;
+
+    @Autowired
+    private MemberCounter memberCounter;
+
+    @Autowired
+    private MemberSearchIndex memberSearchIndex;
+
+    @Autowired
+    private MemberCache memberCache;
+
+    @Autowired
+    private MemberCollectionVersion collectionVersion;
+
+    @Autowired
+    private MemberEmailFilter memberEmailFilter;
+
+    @Autowired
+    private MemberChangeFeed memberChangeFeed;
+
+    private final Validator validator = BulkValidation.validator();
+
+    public MemberBatchResponse execute(List<MemberBatchRequest.Operation> operations) {
+        MemberBatchResponse.Result[] results = new MemberBatchResponse.Result[operations.size()];
+        // Target of each operation; ids of created members are assigned while queueing
+        String[] ids = new String[operations.size()];
+        // Position in the bulk write -> position in the request
+        List<Integer> queued = new ArrayList<>(operations.size());
+        Set<String> targeted = new HashSet<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Member.class);
+
+        for (int i = 0; i < operations.size(); i++) {
+            MemberBatchRequest.Operation operation = operations.get(i);
+            ids[i] = operation.getId();
+            MemberBatchResponse.Result invalid = queue(bulk, i, operation, ids, targeted);
+            if (invalid != null) {
+                results[i] = invalid;
+            } else {
+                queued.add(i);
+            }
+        }
+
+        int created = 0;
+        int updated = 0;
+        int deleted = 0;
+        if (!queued.isEmpty()) {
+            BulkWriteResult writeResult;
+            // Only a bulk write that succeeds in full raises after-save events for its inserts
+            boolean insertEventsRaised = true;
+            try {
+                writeResult = bulk.execute();
+            } catch (BulkOperationException e) {
+                writeResult = e.getResult();
+                insertEventsRaised = false;
+                for (BulkWriteError error : e.getErrors()) {
+                    int index = queued.get(error.getIndex());
+                    results[index] = writeError(index, operations.get(index), ids[index], error);
+                }
+            } finally {
+                // Even a failed bulk write may have applied some operations
+                collectionVersion.bump();
+            }
+            created = writeResult.getInsertedCount();
+            updated = writeResult.getMatchedCount();
+            deleted = writeResult.getDeletedCount();
+            completeResults(operations, ids, queued, results, writeResult, insertEventsRaised);
+            if (created > 0 || deleted > 0) {
+                memberCounter.invalidate();
+            }
+        }
+
+        int failed = 0;
+        for (MemberBatchResponse.Result result : results) {
+            if (result.getStatus() != Status.CREATED && result.getStatus() != Status.UPDATED
+                    && result.getStatus() != Status.DELETED) {
+                failed++;
+            }
+        }
+        logger.info("Member batch: {} created, {} updated, {} deleted, {} failed", created, updated, deleted, failed);
+        return new MemberBatchResponse(created, updated, deleted, failed, List.of(results));
+    }
+
+    /**
+     * Adds the operation to the bulk write, or returns an INVALID result when it
+     * cannot be sent.
+     */
+    private MemberBatchResponse.Result queue(BulkOperations bulk, int index, MemberBatchRequest.Operation operation,
+                                             String[] ids, Set<String> targeted) {
+        String op = operation.getOp();
+        if (!"create".equals(op) && isBlank(operation.getId())) {
+            return result(index, operation, null, Status.INVALID, "id", "Id is required for " + op);
+        }
+        if (!"create".equals(op) && !targeted.add(operation.getId())) {
+            return result(index, operation, operation.getId(), Status.INVALID, "id",
+                "Member id appears more than once in the batch");
+        }
+
+        switch (op) {
+            case "create" -> {
+                CreateMemberRequest request = new CreateMemberRequest();
+                request.setName(operation.getName());
+                request.setEmail(operation.getEmail());
+                request.setPhoneNumber(operation.getPhoneNumber());
+                ConstraintViolation<?> violation = firstViolation(request);
+                if (violation != null) {
+                    return result(index, operation, null, Status.INVALID,
+                        violation.getPropertyPath().toString(), violation.getMessage());
+                }
+                Member member = memberMapper.toEntity(request);
+                // Assigned here so the result can report it
+                member.setId(new ObjectId().toHexString());
+                ids[index] = member.getId();
+                bulk.insert(member);
+            }
+            case "update" -> {
+                UpdateMemberRequest request = new UpdateMemberRequest();
+                request.setName(operation.getName());
+                request.setEmail(operation.getEmail());
+                request.setPhoneNumber(operation.getPhoneNumber());
+                ConstraintViolation<?> violation = firstViolation(request);
+                if (violation != null) {
+                    return result(index, operation, operation.getId(), Status.INVALID,
+                        violation.getPropertyPath().toString(), violation.getMessage());
+                }
+                bulk.updateOne(byId(operation.getId()), new Update()
+                    .inc("version", 1)
+                    .set("name", request.getName())
+                    .set("email", request.getEmail())
+                    .set("phoneNumber", request.getPhoneNumber()));
+            }
+            default -> bulk.remove(byId(operation.getId()));
+        }
+        return null;
+    }
+
+    private void completeResults(List<MemberBatchRequest.Operation> operations, String[] ids, List<Integer> queued,
+                                 MemberBatchResponse.Result[] results, BulkWriteResult writeResult,
+                                 boolean insertEventsRaised) {
+        List<String> updateIds = new ArrayList<>();
+        for (int index : queued) {
+            if (results[index] == null && "update".equals(operations.get(index).getOp())) {
+                updateIds.add(ids[index]);
+            }
+        }
+        int matched = writeResult.getMatchedCount();
+        Set<String> missing = matched >= updateIds.size() ? Set.of()
+            : matched == 0 ? new HashSet<>(updateIds)
+            : missingIds(updateIds);
+
+        for (int index : queued) {
+            if (results[index] != null) {
+                continue;
+            }
+            MemberBatchRequest.Operation operation = operations.get(index);
+            Status status = switch (operation.getOp()) {
+                case "create" -> Status.CREATED;
+                case "update" -> missing.contains(ids[index]) ? Status.NOT_FOUND : Status.UPDATED;
+                default -> Status.DELETED;
+            };
+            results[index] = result(index, operation, ids[index], status, null,
+                status == Status.NOT_FOUND ? "Member not found with id: " + ids[index] : null);
+            publishChange(operation, ids[index], status, insertEventsRaised);
+        }
+    }
+
+    /**
+     * Bulk updates and deletes raise no lifecycle events, so the search index,
+     * email filter, member cache and change feed are told here. Inserts are
+     * announced by after-save events when the bulk write succeeds in full, and
+     * only the inserts of a bulk write that failed in part are published here,
+     * so that no listener sees a create twice.
+     */
+    private void publishChange(MemberBatchRequest.Operation operation, String id, Status status,
+                               boolean insertEventsRaised) {
+        switch (status) {
+            case CREATED -> {
+                if (insertEventsRaised) {
+                    return;
+                }
+                Member member = new Member(id, operation.getName(), operation.getEmail(), operation.getPhoneNumber());
+                memberSearchIndex.put(member);
+                memberEmailFilter.put(operation.getEmail());
+                memberChangeFeed.publishLocal(MemberChangeEvent.CREATED, id, member);
+            }
+            case UPDATED -> {
+                Member member = new Member(id, operation.getName(), operation.getEmail(), operation.getPhoneNumber());
+                memberSearchIndex.put(member);
+                memberEmailFilter.put(operation.getEmail());
+                memberCache.evict(id);
+                memberChangeFeed.publishLocal(MemberChangeEvent.UPDATED, id, member);
+            }
+            case DELETED -> {
+                memberSearchIndex.remove(id);
+                memberCache.evict(id);
+                memberChangeFeed.publishLocal(MemberChangeEvent.DELETED, id, null);
+            }
+            default -> { }
+        }
+    }
+
+    private Set<String> missingIds(List<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        Set<String> missing = new HashSet<>(ids);
+        for (Member member : mongoTemplate.find(query, Member.class)) {
+            missing.remove(member.getId());
+        }
+        return missing;
+    }
+
+    private MemberBatchResponse.Result writeError(int index, MemberBatchRequest.Operation operation, String id,
+                                                  BulkWriteError error) {
+        if (error.getCode() == 11000) {
+            String field = DuplicateResourceException.duplicateField(error.getMessage(), "email");
+            return result(index, operation, id, Status.CONFLICT, field,
+                "email".equals(field) || field == null ? "Email address is already in use" : error.getMessage());
+        }
+        return result(index, operation, id, Status.FAILED, null, error.getMessage());
+    }
+
+    private ConstraintViolation<?> firstViolation(Object request) {
+        Set<? extends ConstraintViolation<?>> violations = validator.validate(request);
+        return violations.isEmpty() ? null : violations.iterator().next();
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+
+    private static MemberBatchResponse.Result result(int index, MemberBatchRequest.Operation operation, String id,
+                                                     Status status, String field, String message) {
+        return new MemberBatchResponse.Result(index, operation.getOp(), id, status, field, message);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.example.kitchensink.repository.MemberRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache behind GET /api/members/{id}. Each entry carries the
+ * member's strong ETag so conditional reads of a cached member are answered
+ * without a query. Saves and deletes made through the repository evict the
+ * entry; bulk writes, which raise no lifecycle events, evict explicitly. Other
+ * nodes' writes are evicted by the member change feed while its change stream
+ * runs, and everything is evicted when that stream may have missed events. With
+ * no change stream at all, such as on a standalone server, another node's write
+ * shows here only once the entry expires after {@code app.memberCacheTtlMs}.
+ */
+@Service
+public class MemberCache extends AbstractMongoEventListener<Member> {
+
+    @Value("${app.memberCacheMaxSize:10000}")
+    private long cacheMaxSize = 10000;
+
+    @Value("${app.memberCacheTtlMs:300000}")
+    private long cacheTtlMs = 300000;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MemberMapper memberMapper;
+
+    private volatile Cache<String, CachedMember> cache;
+
+    /**
+     * The member as returned to clients, and the ETag of that representation.
+     * Shared between requests, so never modified after creation.
+     */
+    public record CachedMember(MemberDto member, String etag) {
+    }
+
+    public Optional<CachedMember> get(String id) {
+        // Loads of one id are serialized with its eviction, so a load that read the
+        // old document finishes before the eviction and cannot outlive it
+        return Optional.ofNullable(getCache().get(id, key -> memberRepository.findById(key)
+                .map(member -> new CachedMember(memberMapper.toDto(member), etag(member)))
+                .orElse(null)));
+    }
+
+    public void evict(String id) {
+        getCache().invalidate(id);
+    }
+
+    public void evictAll() {
+        getCache().invalidateAll();
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Member> event) {
+        String id = event.getSource().getId();
+        if (id != null) {
+            evict(id);
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Member> event) {
+        Document filter = event.getSource();
+        Object id = filter.get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            evict(id.toString());
+        } else {
+            evictAll();
+        }
+    }
+
+    public Cache<String, CachedMember> getCache() {
+        Cache<String, CachedMember> current = cache;
+        if (current == null) {
+            synchronized (this) {
+                current = cache;
+                if (current == null) {
+                    current = Caffeine.newBuilder()
+                            .maximumSize(cacheMaxSize)
+                            .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                            .recordStats()
+                            .build();
+                    cache = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Strong ETag of the member's stored version. Documents written before
+     * members were versioned have none and count as version 0.
+     */
+    public static String etag(Member member) {
+        return "\"" + (member.getVersion() != null ? member.getVersion() : 0) + "\"";
+    }
+}
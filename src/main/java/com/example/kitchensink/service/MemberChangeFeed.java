@@ -0,0 +1,605 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.MemberChangeEvent;
+import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans member changes out to Server-Sent Events subscribers. Each node reads one
+ * change stream on {@code members} and uses its resume tokens as event ids. The
+ * last {@code app.memberStreamReplaySize} events are kept so that a client
+ * reconnecting with Last-Event-ID gets what it missed, on whichever node it
+ * lands. That buffer is the whole replay window: an id older than it gets a
+ * {@code reset}, even though the change stream itself could still resume from
+ * it, since that would take a cursor per reconnecting client. If the stream
+ * fails after delivering events, it is reopened from the last token.
+ * <p>
+ * Sends run on platform threads and subscribers per node are capped. A client
+ * that stops reading blocks only its own send: the pool starts another thread
+ * rather than queue other subscribers behind it, and a send blocked for longer
+ * than {@code app.memberStreamSendTimeoutMs} drops that subscriber.
+ * <p>
+ * Every subscriber has a bounded buffer. A newer change to a member replaces
+ * the queued one. A subscriber too slow to keep up with that loses its buffer
+ * and is sent a {@code reset} event, telling it to reload the list.
+ * <p>
+ * Without change streams (a standalone server), the feed carries only this
+ * node's writes, taken from lifecycle events and from the bulk paths that
+ * raise none. A stream that fails without a token to resume from is reopened
+ * fresh, with backoff, for as long as it keeps failing; when it runs again,
+ * subscribers are sent a reset for the changes missed meanwhile.
+ * <p>
+ * Change stream events also keep {@link MemberSearchIndex} current with writes
+ * from other nodes and direct database writes, and evict those members from
+ * {@link MemberCache}. When events may have been missed, the index is rebuilt,
+ * the member cache emptied and the collection version bumped along with the
+ * subscriber reset.
+ */
+@Service
+public class MemberChangeFeed extends AbstractMongoEventListener<Member> {
+    private static final Logger logger = LoggerFactory.getLogger(MemberChangeFeed.class);
+
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    // Longest wait between attempts to reopen a change stream that could not be resumed
+    private static final long MAX_REOPEN_DELAY_MS = 300_000;
+
+    @Value("${app.memberStreamReplaySize:1000}")
+    private int replaySize = 1000;
+
+    @Value("${app.memberStreamBufferSize:256}")
+    private int bufferSize = 256;
+
+    @Value("${app.memberStreamHeartbeatMs:15000}")
+    private long heartbeatMs = 15000;
+
+    @Value("${app.memberStreamSenderThreads:4}")
+    private int senderThreads = 4;
+
+    @Value("${app.memberStreamSendTimeoutMs:10000}")
+    private long sendTimeoutMs = 10000;
+
+    @Value("${app.memberStreamMaxSubscribers:1000}")
+    private int maxSubscribers = 1000;
+
+    @Value("${app.memberStreamTimeoutMs:1800000}")
+    private long timeoutMs = 1800000;
+
+    @Value("${app.memberStreamRetryMs:5000}")
+    private long retryMs = 5000;
+
+    @Value("${app.memberStreamStartTimeoutMs:5000}")
+    private long startTimeoutMs = 5000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MemberMapper memberMapper;
+
+    @Autowired
+    private MemberCollectionVersion collectionVersion;
+
+    @Autowired
+    private MemberSearchIndex memberSearchIndex;
+
+    @Autowired
+    private MemberCache memberCache;
+
+    // Latest events, oldest first, replayed to subscribers resuming with Last-Event-ID; guarded by itself
+    private final Deque<MemberChangeEvent> recent = new ArrayDeque<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Platform threads, not virtual: SseEmitter.send is synchronized, so a socket write blocked
+    // on a slow client would pin a virtual thread's carrier. Drains are handed straight to a
+    // thread, never queued, so a blocked send cannot hold back other subscribers. Each subscriber
+    // has at most one drain running; dropped subscribers whose write has not yet timed out in
+    // Tomcat can hold a thread too, hence twice the subscriber cap.
+    private volatile ExecutorService senders;
+
+    // Event ids for writes published without a change stream
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean changeStreamActive;
+
+    // Token of the last change stream event, to reopen the stream after a failure
+    private volatile BsonDocument resumeToken;
+
+    // Failed attempts to open a fresh stream since the last one that ran; sets the backoff
+    private final AtomicInteger reopenAttempts = new AtomicInteger();
+
+    // Set while no stream runs and none can be resumed, so events from other nodes may be missing
+    private volatile boolean streamLost;
+
+    private MessageListenerContainer changeStreamContainer;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+
+        changeStreamContainer = new DefaultMessageListenerContainer(mongoTemplate);
+        changeStreamContainer.start();
+        openChangeStream(null);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (changeStreamContainer != null) {
+            changeStreamContainer.stop();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        if (senders != null) {
+            senders.shutdownNow();
+        }
+    }
+
+    /**
+     * Opens an event stream for one client.
+     *
+     * @param lastEventId id of the last event the client received, to replay what followed it;
+     *                    if it is no longer in the replay buffer, the client is sent a reset
+     * @throws ServiceUnavailableException if this node has as many subscribers as it allows
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (recent) {
+            // Checked under the lock, so concurrent subscribes cannot overshoot the cap
+            if (subscribers.size() >= maxSubscribers) {
+                throw new ServiceUnavailableException("Too many member stream subscribers, please retry shortly",
+                    RETRY_AFTER_SECONDS);
+            }
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(lastEventId, subscriber);
+            }
+            subscribers.add(subscriber);
+        }
+        // Sends the response headers right away so the client sees the stream open
+        subscriber.heartbeat();
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Publishes a write made on this node when no change stream reports it.
+     * Called for the bulk writes that raise no lifecycle events.
+     */
+    public void publishLocal(String type, String memberId, Member member) {
+        if (changeStreamActive || memberId == null) {
+            return;
+        }
+        publish(new MemberChangeEvent(epoch + "." + sequence.incrementAndGet(), type, memberId,
+            member != null ? memberMapper.toDto(member) : null));
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Member> event) {
+        Member member = event.getSource();
+        // Inserts start at version 0 and every update increments it
+        Long version = member.getVersion();
+        publishLocal(version == null || version == 0 ? MemberChangeEvent.CREATED : MemberChangeEvent.UPDATED,
+            member.getId(), member);
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Member> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            publishLocal(MemberChangeEvent.DELETED, id.toString(), null);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void publish(MemberChangeEvent event) {
+        synchronized (recent) {
+            recent.addLast(event);
+            if (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void replay(String lastEventId, Subscriber subscriber) {
+        boolean found = false;
+        for (MemberChangeEvent event : recent) {
+            if (found) {
+                subscriber.offer(event);
+            } else if (event.getId().equals(lastEventId)) {
+                found = true;
+            }
+        }
+        if (!found) {
+            // Older than what is kept, or from before this node started
+            subscriber.reset();
+        }
+    }
+
+    void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now, TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs))) {
+                // Not completed here: complete() waits for the blocked send's monitor. The send
+                // fails once Tomcat's write timeout closes the connection.
+                subscribers.remove(subscriber);
+                logger.info("Dropped member stream subscriber blocked on a send for over {} ms", sendTimeoutMs);
+                continue;
+            }
+            subscriber.heartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    private void resetAll() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.reset();
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders().execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private ExecutorService senders() {
+        ExecutorService current = senders;
+        if (current == null) {
+            synchronized (this) {
+                current = senders;
+                if (current == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    int coreThreads = Math.max(1, senderThreads);
+                    current = new ThreadPoolExecutor(coreThreads, Math.max(coreThreads, 2 * maxSubscribers),
+                        60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                            Thread thread = new Thread(runnable, "member-stream-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                    senders = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                Batch batch = subscriber.take();
+                if (batch == null) {
+                    subscriber.draining.set(false);
+                    // An offer made after take() but before the flag was cleared scheduled nothing
+                    if (subscriber.isIdle() || !subscriber.draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                subscriber.sendingSince = System.nanoTime() | 1;
+                send(subscriber.emitter, batch);
+                subscriber.sendingSince = 0;
+                if (!subscribers.contains(subscriber)) {
+                    // Dropped while the send was blocked
+                    subscriber.emitter.complete();
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client is gone; the container completes the emitter. Draining stays set so nothing is queued again.
+            subscribers.remove(subscriber);
+            logger.debug("Member stream subscriber dropped: {}", e.getMessage());
+        }
+    }
+
+    private static void send(SseEmitter emitter, Batch batch) throws IOException {
+        if (batch.heartbeat()) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+        if (batch.reset()) {
+            emitter.send(SseEmitter.event()
+                .name(MemberChangeEvent.RESET)
+                .data(new MemberChangeEvent(null, MemberChangeEvent.RESET, null, null), MediaType.APPLICATION_JSON));
+        }
+        for (MemberChangeEvent event : batch.events()) {
+            emitter.send(SseEmitter.event()
+                .id(event.getId())
+                .name(event.getType())
+                .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void openChangeStream(BsonDocument resumeAfter) {
+        try {
+            MessageListener<ChangeStreamDocument<Document>, Member> listener = this::onChange;
+            ChangeStreamRequest.ChangeStreamRequestBuilder<Member> request = ChangeStreamRequest.builder(listener)
+                .collection(mongoTemplate.getCollectionName(Member.class))
+                .filter(Aggregation.newAggregation(
+                    Aggregation.match(Criteria.where("operationType").in("insert", "update", "replace", "delete"))))
+                // Updates carry the whole member, so clients need no follow-up read
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+            if (resumeAfter != null) {
+                request.resumeAfter(resumeAfter);
+            }
+            Subscription subscription = changeStreamContainer.register(request.build(), Member.class,
+                this::onChangeStreamError);
+            // Local events keep flowing until the cursor is open, so nothing is lost while it starts
+            if (!subscription.await(Duration.ofMillis(startTimeoutMs))) {
+                subscription.cancel();
+                logger.warn("Member change stream did not start within {} ms, streaming this node's writes only",
+                    startTimeoutMs);
+                reopenLater();
+                return;
+            }
+            // A stream that failed to open has already been handed to onChangeStreamError
+            if (subscription.isActive()) {
+                changeStreamActive = true;
+                // It may have failed, and run the error handler, between the check and the flag being set
+                if (!subscription.isActive()) {
+                    changeStreamActive = false;
+                } else {
+                    reopenAttempts.set(0);
+                    if (streamLost) {
+                        streamLost = false;
+                        // Other nodes' writes while no stream ran were never seen here
+                        forgetMissedWrites();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            changeStreamActive = false;
+            logger.warn("Could not open member change stream, streaming this node's writes only: {}",
+                e.getMessage());
+            reopenLater();
+        }
+    }
+
+    /**
+     * Schedules a fresh stream after a delay that doubles with every failed
+     * attempt, from app.memberStreamRetryMs up to five minutes.
+     */
+    private void reopenLater() {
+        streamLost = true;
+        int attempt = reopenAttempts.getAndIncrement();
+        long delay = Math.min(retryMs << Math.min(attempt, 16), MAX_REOPEN_DELAY_MS);
+        try {
+            scheduler.schedule(() -> openChangeStream(null), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Drops everything derived from events that may have been missed: subscribers
+     * are sent a reset, the search index is rebuilt, cached members are evicted
+     * and the collection version moves past every cached page.
+     */
+    private void forgetMissedWrites() {
+        collectionVersion.bump();
+        resetAll();
+        if (memberSearchIndex.isReady()) {
+            memberSearchIndex.reload();
+        }
+        memberCache.evictAll();
+    }
+
+    private void onChangeStreamError(Throwable error) {
+        changeStreamActive = false;
+        BsonDocument token = resumeToken;
+        resumeToken = null;
+        if (token != null) {
+            // Writes made meanwhile go out as local events; the resumed stream may repeat them
+            logger.warn("Member change stream failed, resuming in {} ms: {}", retryMs, error.getMessage());
+            scheduler.schedule(() -> openChangeStream(token), retryMs, TimeUnit.MILLISECONDS);
+        } else {
+            logger.warn("Member change stream unavailable, streaming this node's writes only: {}",
+                error.getMessage());
+            // Anything between the last delivered event and now may be missing. Only said once:
+            // retries against a server without change streams fail the same way every time.
+            if (!streamLost) {
+                forgetMissedWrites();
+            }
+            reopenLater();
+        }
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Member> message) {
+        ChangeStreamDocument<Document> change = message.getRaw();
+        if (change == null || change.getResumeToken() == null) {
+            return;
+        }
+        resumeToken = change.getResumeToken();
+        // Covers writes from other nodes and direct database writes, which raise no events here
+        collectionVersion.bump();
+        String id = change.getResumeToken().getString("_data").getValue();
+        String memberId = memberId(change.getDocumentKey());
+        // Another node's write leaves this node's cached copy, and its ETag, behind
+        if (memberId != null) {
+            memberCache.evict(memberId);
+        }
+        switch (change.getOperationType()) {
+            case INSERT -> {
+                indexPut(message.getBody());
+                publish(new MemberChangeEvent(id, MemberChangeEvent.CREATED, memberId, toDto(message.getBody())));
+            }
+            case UPDATE, REPLACE -> {
+                // Deleted before the lookup; its delete event follows
+                if (message.getBody() != null) {
+                    indexPut(message.getBody());
+                    publish(new MemberChangeEvent(id, MemberChangeEvent.UPDATED, memberId,
+                        toDto(message.getBody())));
+                }
+            }
+            case DELETE -> {
+                if (memberId != null) {
+                    memberSearchIndex.remove(memberId);
+                }
+                publish(new MemberChangeEvent(id, MemberChangeEvent.DELETED, memberId, null));
+            }
+            default -> { }
+        }
+    }
+
+    private void indexPut(Member member) {
+        // This node's own writes are already indexed; putting the same text again is a no-op
+        if (member != null) {
+            memberSearchIndex.put(member);
+        }
+    }
+
+    private MemberDto toDto(Member member) {
+        return member != null ? memberMapper.toDto(member) : null;
+    }
+
+    private static String memberId(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    /**
+     * One client's pending output: the latest event per member in the order the
+     * events were published, plus flags for a reset or heartbeat to send.
+     */
+    static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the current send started, 0 when none is running
+        volatile long sendingSince;
+        private final int capacity;
+        // Guarded by this
+        private final LinkedHashMap<String, MemberChangeEvent> pending = new LinkedHashMap<>();
+        private boolean reset;
+        private boolean heartbeat;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.capacity = capacity;
+        }
+
+        synchronized void offer(MemberChangeEvent event) {
+            // A newer change replaces the queued one and moves to the back, so ids go out in order
+            if (pending.remove(event.getMemberId()) == null && pending.size() >= capacity) {
+                pending.clear();
+                reset = true;
+            }
+            pending.put(event.getMemberId(), event);
+        }
+
+        synchronized void reset() {
+            pending.clear();
+            reset = true;
+        }
+
+        synchronized void heartbeat() {
+            heartbeat = true;
+        }
+
+        boolean isStalled(long now, long timeoutNanos) {
+            long since = sendingSince;
+            return since != 0 && now - since > timeoutNanos;
+        }
+
+        synchronized boolean isIdle() {
+            return pending.isEmpty() && !reset && !heartbeat;
+        }
+
+        synchronized Batch take() {
+            if (isIdle()) {
+                return null;
+            }
+            Batch batch = new Batch(reset, heartbeat, List.copyOf(pending.values()));
+            pending.clear();
+            reset = false;
+            heartbeat = false;
+            return batch;
+        }
+    }
+
+    record Batch(boolean reset, boolean heartbeat, List<MemberChangeEvent> events) {
+    }
+}
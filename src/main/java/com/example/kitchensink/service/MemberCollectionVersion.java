@@ -0,0 +1,51 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.model.Member;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change version of the members collection, bumped after every member write
+ * this node makes. Saves and deletes through the repository bump it from their
+ * lifecycle events; bulk writes, which raise none for updates and deletes, call
+ * {@link #bump()} once they complete. While a change stream is open, the member
+ * change feed also bumps it for every event, which covers other nodes' writes,
+ * and once more whenever the stream is lost or reopened, for the writes it may
+ * have missed in between.
+ * Readers take the version before querying, so anything derived from a read is
+ * never older than the version it is filed under.
+ */
+@Service
+public class MemberCollectionVersion extends AbstractMongoEventListener<Member> {
+
+    // Distinguishes this process, so versions counted after a restart never repeat old tags
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * The current version as a token that is unique across restarts.
+     */
+    public String tag() {
+        return epoch + "." + version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Member> event) {
+        bump();
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Member> event) {
+        bump();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.model.Member;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of members, kept in memory so listings can report a total without a
+ * count query. Inserts and deletes that raise lifecycle events adjust it as
+ * they happen; an exact recount replaces it once it is older than the refresh
+ * interval, which also picks up writes made by other nodes or outside the
+ * repository. An after-save event is an insert when the member is at version 0,
+ * since every update increments the version; this needs no state shared between
+ * the events of one save, so it holds whatever thread raises them.
+ */
+@Service
+public class MemberCounter extends AbstractMongoEventListener<Member> {
+
+    @Value("${app.memberCountRefreshMs:60000}")
+    private long refreshMs = 60000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile long loadedAt;
+
+    public long get() {
+        long loaded = loadedAt;
+        if (loaded != 0 && System.currentTimeMillis() - loaded < refreshMs) {
+            return count.get();
+        }
+        if (!refreshing.compareAndSet(false, true)) {
+            // Another thread is recounting; a slightly stale total is fine meanwhile
+            return loaded != 0 ? count.get() : recount();
+        }
+        try {
+            long counted = recount();
+            count.set(counted);
+            loadedAt = System.currentTimeMillis();
+            return counted;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    public void invalidate() {
+        loadedAt = 0;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Member> event) {
+        Long version = event.getSource().getVersion();
+        if (version == null || version == 0) {
+            count.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Member> event) {
+        Document filter = event.getSource();
+        if (filter.size() == 1 && filter.get("_id") != null && !(filter.get("_id") instanceof Document)) {
+            count.decrementAndGet();
+        } else {
+            // Bulk or filtered delete; the number removed is unknown here
+            invalidate();
+        }
+    }
+
+    private long recount() {
+        return mongoTemplate.count(new Query(), Member.class);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.model.Member;
+import com.example.kitchensink.security.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over every member email, so the create-time uniqueness check
+ * can accept a definitely-new email without a query. A positive answer still
+ * goes to Mongo, and the unique index on members.email settles any race.
+ * <p>
+ * The filter is built from the collection after startup; until then every email
+ * counts as possibly taken. Saves add their email through lifecycle events; bulk
+ * writes and updates, which fire none, add theirs explicitly. Emails that were changed or deleted stay in the
+ * filter as harmless false positives until the next rebuild, which happens once
+ * the filter outgrows its sizing.
+ */
+@Service
+public class MemberEmailFilter extends AbstractMongoEventListener<Member> {
+    private static final Logger logger = LoggerFactory.getLogger(MemberEmailFilter.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Value("${app.memberEmailFilterExpectedEntries:100000}")
+    private int expectedEntries = 100000;
+
+    @Value("${app.memberEmailFilterFalsePositiveRate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Null until the first load completes
+    private volatile BloomFilter filter;
+
+    // Filter being loaded; writes go to it as well so none are lost when it replaces the live one
+    private volatile BloomFilter building;
+
+    // Emails added to the live filter, including repeats and stale ones
+    private final AtomicInteger added = new AtomicInteger();
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-email-filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * False only when no member has this email.
+     */
+    public boolean mightExist(String email) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(email);
+    }
+
+    public void put(String email) {
+        if (email == null) {
+            return;
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(email);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(email);
+            if (added.incrementAndGet() > current.capacity()) {
+                // Past its sizing the false positive rate climbs; rebuild larger from the collection
+                load();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (loading.compareAndSet(false, true)) {
+            background.execute(this::loadFromDatabase);
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Member> event) {
+        put(event.getSource().getEmail());
+    }
+
+    void loadFromDatabase() {
+        try {
+            long count = mongoTemplate.estimatedCount(Member.class);
+            BloomFilter next = new BloomFilter((int) Math.min(Integer.MAX_VALUE / 2,
+                    Math.max(expectedEntries, 2 * count)), falsePositiveRate);
+            // Published before the scan starts: a write either lands in it directly or is
+            // already committed when the scan reads the collection
+            building = next;
+            Query query = new Query();
+            query.fields().include("email");
+            query.cursorBatchSize(LOAD_BATCH_SIZE);
+            int loaded = 0;
+            try (Stream<Member> members = mongoTemplate.stream(query, Member.class)) {
+                for (Member member : (Iterable<Member>) members::iterator) {
+                    if (member.getEmail() != null) {
+                        next.put(member.getEmail());
+                        loaded++;
+                    }
+                }
+            }
+            filter = next;
+            added.set(loaded);
+            logger.info("Member email filter loaded with {} emails, sized for {}", loaded, next.capacity());
+        } catch (Exception e) {
+            logger.warn("Could not load member email filter, uniqueness checks query Mongo: {}", e.getMessage());
+        } finally {
+            building = null;
+            loading.set(false);
+        }
+    }
+}
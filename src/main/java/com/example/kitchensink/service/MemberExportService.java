@@ -0,0 +1,162 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Streams the whole members collection from a single Mongo cursor, in _id
+ * order, as NDJSON or CSV. Only one cursor batch is held in memory at a time
+ * and output is flushed after each batch; writes block while the client is
+ * not reading, which in turn stops the cursor from fetching more, so memory
+ * stays flat however large the collection is.
+ */
+@Service
+public class MemberExportService {
+    private static final Logger logger = LoggerFactory.getLogger(MemberExportService.class);
+
+    private static final List<String> ALL_FIELDS = List.of("name", "email", "phoneNumber");
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Value("${app.memberExportBatchSize:1000}")
+    private int batchSize = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MemberMapper memberMapper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Writes every member to {@code out}. {@code fields} works as in the paged
+     * listing: null exports every field, the id is always included.
+     */
+    public long export(OutputStream out, Format format, Set<String> fields) throws IOException {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.cursorBatchSize(batchSize);
+        if (fields != null) {
+            query.fields().include(fields.isEmpty() ? new String[] {"_id"} : fields.toArray(String[]::new));
+        }
+        List<String> columns = new ArrayList<>();
+        columns.add("id");
+        columns.addAll(fields != null ? fields : ALL_FIELDS);
+
+        long exported = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // Closing the stream closes the Mongo cursor, including when the client goes away mid-export
+        try (Stream<Member> members = mongoTemplate.stream(query, Member.class)) {
+            Iterator<Member> iterator = members.iterator();
+            if (format == Format.CSV) {
+                writeCsvRow(writer, columns);
+                while (iterator.hasNext()) {
+                    MemberDto member = memberMapper.toDto(iterator.next(), fields);
+                    writeCsvRow(writer, csvValues(member, columns));
+                    if (++exported % batchSize == 0) {
+                        writer.flush();
+                    }
+                }
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                // Each record ends with its own newline instead of the default space between values
+                generator.setRootValueSeparator(null);
+                while (iterator.hasNext()) {
+                    generator.writeObject(memberMapper.toDto(iterator.next(), fields));
+                    generator.writeRaw('\n');
+                    if (++exported % batchSize == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.flush();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            logger.info("Member export aborted after {} rows: {}", exported, e.getMessage());
+            throw e;
+        }
+        logger.info("Exported {} members as {}", exported, format.getExtension());
+        return exported;
+    }
+
+    private static List<String> csvValues(MemberDto member, List<String> columns) {
+        List<String> values = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            values.add(switch (column) {
+                case "id" -> member.getId();
+                case "name" -> member.getName();
+                case "email" -> member.getEmail();
+                case "phoneNumber" -> member.getPhoneNumber();
+                default -> null;
+            });
+        }
+        return values;
+    }
+
+    /**
+     * Writes one RFC 4180 record: values containing a separator, quote or line
+     * break are quoted, with embedded quotes doubled.
+     */
+    static void writeCsvRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
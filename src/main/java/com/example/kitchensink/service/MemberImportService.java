@@ -0,0 +1,496 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.CreateMemberRequest;
+import com.example.kitchensink.dto.MemberChangeEvent;
+import com.example.kitchensink.dto.MemberImportResponse;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.example.kitchensink.validation.BulkValidation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports members from an NDJSON or CSV upload as a pipeline: rows are parsed
+ * from the request stream one batch at a time, each batch is validated in
+ * parallel, and then written with one unordered bulk insert while the next
+ * batch is parsed and validated. Parsing waits for the previous write before
+ * handing over the next batch, so at most two batches are in memory, whatever
+ * the upload size. Writes run on their own pool so that they never queue
+ * behind, or hold up, validation work.
+ * <p>
+ * Validation uses the {@link CreateMemberRequest} constraints, except that email
+ * uniqueness is checked once per batch with a single query rather than one
+ * lookup per row.
+ */
+@Service
+public class MemberImportService {
+    private static final Logger logger = LoggerFactory.getLogger(MemberImportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    @Value("${app.memberImportBatchSize:1000}")
+    private int batchSize = 1000;
+
+    @Value("${app.memberImportParallelism:0}")
+    private int parallelism;
+
+    @Value("${app.memberImportMaxReportedFailures:1000}")
+    private int maxReportedFailures = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MemberMapper memberMapper;
+
+    @Autowired
+    private MemberCounter memberCounter;
+
+    @Autowired
+    private MemberSearchIndex memberSearchIndex;
+
+    @Autowired
+    private MemberCollectionVersion collectionVersion;
+
+    @Autowired
+    private MemberEmailFilter memberEmailFilter;
+
+    @Autowired
+    private MemberChangeFeed memberChangeFeed;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Validator validator = BulkValidation.validator();
+
+    private volatile ExecutorService workers;
+    private volatile ExecutorService writer;
+
+    public MemberImportResponse importMembers(InputStream in, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ImportReport report = new ImportReport(maxReportedFailures);
+        RowSource rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader, objectMapper);
+
+        CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+        try {
+            List<Row> batch;
+            while (!(batch = nextBatch(rows, report)).isEmpty()) {
+                List<Row> valid = validate(batch, report);
+                // Writes stay in order, one batch behind parsing, so later batches see earlier inserts;
+                // waiting here is the backpressure that keeps a slow database from piling up batches
+                pendingWrite.join();
+                pendingWrite = CompletableFuture.runAsync(() -> write(valid, report), writer());
+            }
+            pendingWrite.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            memberCounter.invalidate();
+            collectionVersion.bump();
+        }
+
+        MemberImportResponse response = report.toResponse();
+        logger.info("Member import: {} of {} rows imported, {} failed",
+            response.getImported(), response.getReceived(), response.getFailed());
+        return response;
+    }
+
+    private List<Row> nextBatch(RowSource rows, ImportReport report) throws IOException {
+        List<Row> batch = new ArrayList<>(batchSize);
+        Row row;
+        while (batch.size() < batchSize && (row = rows.next()) != null) {
+            report.received++;
+            if (row.error != null) {
+                report.fail(row.line, null, row.error);
+            } else {
+                batch.add(row);
+            }
+        }
+        return batch;
+    }
+
+    private List<Row> validate(List<Row> batch, ImportReport report) {
+        int threads = threads();
+        int chunk = Math.max(64, (batch.size() + threads - 1) / threads);
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < batch.size(); start += chunk) {
+            List<Row> slice = batch.subList(start, Math.min(start + chunk, batch.size()));
+            chunks.add(CompletableFuture.runAsync(() -> slice.forEach(this::validate), workers()));
+        }
+        chunks.forEach(CompletableFuture::join);
+
+        List<Row> valid = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (row.violation == null) {
+                valid.add(row);
+            } else {
+                report.fail(row.line, row.violation.getPropertyPath().toString(), row.violation.getMessage());
+            }
+        }
+        return valid;
+    }
+
+    private void validate(Row row) {
+        Set<ConstraintViolation<CreateMemberRequest>> violations = validator.validate(row.request);
+        if (!violations.isEmpty()) {
+            row.violation = violations.iterator().next();
+        }
+    }
+
+    private void write(List<Row> rows, ImportReport report) {
+        List<Row> unique = dropDuplicateEmails(rows, report);
+        if (unique.isEmpty()) {
+            return;
+        }
+
+        List<Member> members = new ArrayList<>(unique.size());
+        for (Row row : unique) {
+            Member member = memberMapper.toEntity(row.request);
+            // Known up front so the inserted part of a failed bulk write can still be indexed
+            member.setId(new ObjectId().toHexString());
+            members.add(member);
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Member.class);
+        bulk.insert(members);
+        try {
+            report.imported(bulk.execute().getInsertedCount());
+        } catch (BulkOperationException e) {
+            report.imported(e.getResult().getInsertedCount());
+            Set<Integer> failedIndexes = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                Row row = unique.get(error.getIndex());
+                failedIndexes.add(error.getIndex());
+                report.fail(row.line, error.getCode() == 11000 ? "email" : null,
+                    error.getCode() == 11000 ? "Email address is already in use" : error.getMessage());
+            }
+            // A failed bulk write raises no after-save events
+            for (int i = 0; i < members.size(); i++) {
+                if (!failedIndexes.contains(i)) {
+                    memberSearchIndex.put(members.get(i));
+                    memberEmailFilter.put(members.get(i).getEmail());
+                    memberChangeFeed.publishLocal(MemberChangeEvent.CREATED, members.get(i).getId(), members.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Rejects rows whose email repeats an earlier row of the batch or an existing
+     * member, with at most one query for the whole batch.
+     */
+    private List<Row> dropDuplicateEmails(List<Row> rows, ImportReport report) {
+        Map<String, Row> byEmail = new HashMap<>(rows.size() * 2);
+        List<Row> unique = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (byEmail.putIfAbsent(row.request.getEmail(), row) == null) {
+                unique.add(row);
+            } else {
+                report.fail(row.line, "email", "Email address appears earlier in the import");
+            }
+        }
+
+        // Only emails the filter cannot rule out need looking up
+        List<String> candidates = new ArrayList<>();
+        for (String email : byEmail.keySet()) {
+            if (memberEmailFilter.mightExist(email)) {
+                candidates.add(email);
+            }
+        }
+        Set<String> taken = new HashSet<>();
+        if (!candidates.isEmpty()) {
+            Query existing = Query.query(Criteria.where("email").in(candidates));
+            existing.fields().include("email");
+            for (Member member : mongoTemplate.find(existing, Member.class)) {
+                taken.add(member.getEmail());
+            }
+        }
+        if (taken.isEmpty()) {
+            return unique;
+        }
+        List<Row> fresh = new ArrayList<>(unique.size());
+        for (Row row : unique) {
+            if (taken.contains(row.request.getEmail())) {
+                report.fail(row.line, "email", "Email address is already in use");
+            } else {
+                fresh.add(row);
+            }
+        }
+        return fresh;
+    }
+
+    private int threads() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    private ExecutorService workers() {
+        ExecutorService current = workers;
+        if (current == null) {
+            synchronized (this) {
+                current = workers;
+                if (current == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    current = Executors.newFixedThreadPool(threads(), runnable -> {
+                        Thread thread = new Thread(runnable, "member-import-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    workers = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private ExecutorService writer() {
+        ExecutorService current = writer;
+        if (current == null) {
+            synchronized (this) {
+                current = writer;
+                if (current == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    // Each import has one write in flight, so this grows to the number of
+                    // concurrent imports and lets idle threads go
+                    current = Executors.newCachedThreadPool(runnable -> {
+                        Thread thread = new Thread(runnable, "member-import-writer-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    writer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        if (writer != null) {
+            writer.shutdownNow();
+        }
+    }
+
+    private static final class Row {
+        final long line;
+        final CreateMemberRequest request;
+        final String error;
+        volatile ConstraintViolation<CreateMemberRequest> violation;
+
+        Row(long line, CreateMemberRequest request, String error) {
+            this.line = line;
+            this.request = request;
+            this.error = error;
+        }
+    }
+
+    private interface RowSource {
+        /** The next row, or null at the end of the input. */
+        Row next() throws IOException;
+    }
+
+    private static final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        NdjsonRows(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                CreateMemberRequest request = objectMapper.readValue(text, CreateMemberRequest.class);
+                if (request == null) {
+                    return new Row(line, null, "Row must be a JSON object");
+                }
+                return new Row(line, request, null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * CSV with a header row naming the columns (name, email, phoneNumber, in any
+     * order; other columns are ignored). Quoted values follow RFC 4180 but may not
+     * span lines.
+     */
+    private static final class CsvRows implements RowSource {
+        private final BufferedReader reader;
+        private long line;
+        private int nameColumn = -1;
+        private int emailColumn = -1;
+        private int phoneColumn = -1;
+        private String headerError;
+
+        CsvRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (line == 0) {
+                readHeader();
+            }
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            if (headerError != null) {
+                return new Row(line, null, headerError);
+            }
+
+            List<String> values = parseCsvRow(text);
+            if (values == null) {
+                return new Row(line, null, "Unterminated quoted value");
+            }
+            CreateMemberRequest request = new CreateMemberRequest();
+            request.setName(column(values, nameColumn));
+            request.setEmail(column(values, emailColumn));
+            request.setPhoneNumber(column(values, phoneColumn));
+            return new Row(line, request, null);
+        }
+
+        private void readHeader() throws IOException {
+            String header = reader.readLine();
+            line = 1;
+            List<String> columns = header != null ? parseCsvRow(header) : List.of();
+            if (columns == null) {
+                columns = List.of();
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "name" -> nameColumn = i;
+                    case "email" -> emailColumn = i;
+                    case "phonenumber" -> phoneColumn = i;
+                    default -> { }
+                }
+            }
+            if (nameColumn < 0 || emailColumn < 0 || phoneColumn < 0) {
+                headerError = "CSV header must name the columns name, email and phoneNumber";
+            }
+        }
+
+        private static String column(List<String> values, int index) {
+            return index < values.size() ? values.get(index) : null;
+        }
+    }
+
+    /**
+     * Splits one CSV record; returns null when a quoted value is not closed.
+     */
+    static List<String> parseCsvRow(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Outcome of one import. Failures are added from the request thread and the
+     * writer thread, one batch at a time, hence the synchronization.
+     */
+    private static final class ImportReport {
+        private final int maxReported;
+        private final List<MemberImportResponse.Failure> failures = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long failed;
+
+        ImportReport(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        synchronized void imported(int count) {
+            imported += count;
+        }
+
+        synchronized void fail(long line, String field, String message) {
+            failed++;
+            if (failures.size() < maxReported) {
+                failures.add(new MemberImportResponse.Failure(line, field, message));
+            }
+        }
+
+        synchronized MemberImportResponse toResponse() {
+            failures.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+            return new MemberImportResponse(received, imported, failed, failures);
+        }
+    }
+}
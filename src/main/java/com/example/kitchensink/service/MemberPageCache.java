@@ -0,0 +1,104 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.dto.response.ApiResponse;
+import com.example.kitchensink.dto.response.PagedResponse;
+import com.example.kitchensink.dto.response.SerializedApiResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Serialized bodies of recently served member list pages, keyed by their ETag.
+ * The ETag combines the collection version with the query, so a write makes
+ * every older entry unreachable; those age out under the byte budget.
+ * <p>
+ * Other nodes' writes move the version through the member change feed while its
+ * change stream runs. Writes this node cannot see, such as other nodes' writes
+ * on a server without change streams or while the stream is down, do not. The
+ * ETag therefore also names the current {@code app.memberPageCacheTtlMs} window,
+ * and entries expire with it, so no page or 304 outlives that window.
+ */
+@Service
+public class MemberPageCache {
+
+    @Value("${app.memberPageCacheMaxBytes:16777216}")
+    private long maxBytes = 16777216;
+
+    @Value("${app.memberPageCacheTtlMs:10000}")
+    private long ttlMs = 10000;
+
+    @Autowired
+    private MemberCollectionVersion collectionVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Cache<String, SerializedApiResponse<PagedResponse<MemberDto>>> cache;
+
+    /**
+     * Strong ETag for the page the query selects at the current collection version.
+     * Must be taken before the page is read.
+     */
+    public String etag(String query) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = digest.digest(query.getBytes(StandardCharsets.UTF_8));
+        return "\"" + collectionVersion.tag() + "." + System.currentTimeMillis() / ttlMs + "."
+            + HexFormat.of().formatHex(hash, 0, 12) + "\"";
+    }
+
+    public SerializedApiResponse<PagedResponse<MemberDto>> get(String etag) {
+        return getCache().getIfPresent(etag);
+    }
+
+    /**
+     * Serializes the response once and files it under the ETag it was read with.
+     */
+    public SerializedApiResponse<PagedResponse<MemberDto>> put(String etag, ApiResponse<PagedResponse<MemberDto>> response) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize member page", e);
+        }
+        SerializedApiResponse<PagedResponse<MemberDto>> serialized = new SerializedApiResponse<>(response, json);
+        getCache().put(etag, serialized);
+        return serialized;
+    }
+
+    public Cache<String, SerializedApiResponse<PagedResponse<MemberDto>>> getCache() {
+        Cache<String, SerializedApiResponse<PagedResponse<MemberDto>>> current = cache;
+        if (current == null) {
+            synchronized (this) {
+                current = cache;
+                if (current == null) {
+                    current = Caffeine.newBuilder()
+                            .maximumWeight(maxBytes)
+                            .expireAfterWrite(Duration.ofMillis(ttlMs))
+                            // Two bytes per char held in memory
+                            .<String, SerializedApiResponse<PagedResponse<MemberDto>>>weigher(
+                                    (etag, response) -> 2 * (etag.length() + response.length()))
+                            .recordStats()
+                            .build();
+                    cache = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,505 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.model.Member;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory typeahead index over member name, email and phone number.
+ * <p>
+ * Every member occupies a slot; each lower-cased trigram of its fields maps to a
+ * sorted int array of the slots containing it, and the first one and two
+ * characters of each word are indexed the same way for short queries. A query
+ * walks the shortest posting list, checks the others by binary search and
+ * confirms each candidate against the stored text, stopping as soon as enough
+ * matches are found, so its cost depends on the rarest trigram rather than on
+ * the number of members.
+ * <p>
+ * Saves and deletes through the repository keep the index current; bulk paths
+ * that bypass the lifecycle events call {@link #put} and {@link #remove}
+ * directly. Writes from other nodes and direct database writes arrive through
+ * the member change stream, which {@link MemberChangeFeed} forwards here; if
+ * that stream is lost without a resume token, the index is rebuilt, since
+ * which changes it missed is unknown. Without change streams (a standalone
+ * server) only this node's writes are seen.
+ * <p>
+ * Changed or removed members leave dead slots behind, which are compacted away
+ * in the background once they outnumber the live ones.
+ */
+@Service
+public class MemberSearchIndex extends AbstractMongoEventListener<Member> {
+    private static final Logger logger = LoggerFactory.getLogger(MemberSearchIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MIN_DEAD_SLOTS_TO_COMPACT = 10_000;
+    private static final char FIELD_SEPARATOR = '\n';
+
+    // Key tags: trigrams use the low 48 bits; word prefixes of one and two chars are tagged above them
+    private static final long ONE_CHAR_PREFIX = 1L << 48;
+    private static final long TWO_CHAR_PREFIX = 2L << 48;
+
+    @Value("${app.memberSearchEnabled:true}")
+    private boolean enabled = true;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Serializes writers with the loader and the compactor; readers only take the read lock
+    private final Object writeMutex = new Object();
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Slots slots = new Slots(1024);
+
+    private volatile boolean ready;
+
+    // Ids written while the initial load runs; the loader must not overwrite them with older data
+    private Set<String> touchedDuringLoad = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled && !ready && loading.compareAndSet(false, true)) {
+            background.execute(this::loadFromDatabase);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        background.shutdownNow();
+    }
+
+    /**
+     * Up to {@code limit} members whose name, email or phone number contains
+     * {@code query} (case-insensitive); queries of one or two characters match
+     * the start of a word.
+     *
+     * @throws ServiceUnavailableException while the index is still being built
+     */
+    public List<Member> search(String query, int limit) {
+        if (!ready) {
+            load();
+            throw new ServiceUnavailableException("Member search is warming up, please retry shortly", 5);
+        }
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Slots current = slots;
+            IntList[] lists = postingLists(current, normalized);
+            if (lists == null) {
+                return List.of();
+            }
+            return current.collect(lists, normalized, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return slots.liveCount;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Member member) {
+        if (member.getId() == null) {
+            return;
+        }
+        synchronized (writeMutex) {
+            if (touchedDuringLoad != null) {
+                touchedDuringLoad.add(member.getId());
+            }
+            lock.writeLock().lock();
+            try {
+                slots.put(member.getId(), text(member));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        maybeCompact();
+    }
+
+    public void remove(String id) {
+        synchronized (writeMutex) {
+            if (touchedDuringLoad != null) {
+                touchedDuringLoad.add(id);
+            }
+            lock.writeLock().lock();
+            try {
+                slots.remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        maybeCompact();
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Member> event) {
+        put(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Member> event) {
+        Document filter = event.getSource();
+        Object id = filter.get("_id");
+        if (filter.size() == 1 && id != null && !(id instanceof Document)) {
+            remove(id.toString());
+        } else {
+            // A filtered or bulk delete; which members went is unknown, so rebuild from the database
+            reload();
+        }
+    }
+
+    /**
+     * Discards the index and builds it again from the database; searches get
+     * 503 until it is ready.
+     */
+    public void reload() {
+        synchronized (writeMutex) {
+            ready = false;
+        }
+        load();
+    }
+
+    void loadFromDatabase() {
+        try {
+            synchronized (writeMutex) {
+                touchedDuringLoad = new HashSet<>();
+                lock.writeLock().lock();
+                try {
+                    slots = new Slots(1024);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+            query.fields().include("name", "email", "phoneNumber");
+            query.cursorBatchSize(LOAD_BATCH_SIZE);
+            List<Member> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            try (Stream<Member> members = mongoTemplate.stream(query, Member.class)) {
+                Iterator<Member> iterator = members.iterator();
+                while (iterator.hasNext()) {
+                    batch.add(iterator.next());
+                    if (batch.size() == LOAD_BATCH_SIZE || !iterator.hasNext()) {
+                        addLoaded(batch);
+                        batch.clear();
+                    }
+                }
+            }
+
+            synchronized (writeMutex) {
+                touchedDuringLoad = null;
+                ready = true;
+            }
+            logger.info("Member search index built with {} members", slots.liveCount);
+        } catch (Exception e) {
+            logger.warn("Could not build the member search index, retrying on the next search: {}", e.getMessage());
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    private void addLoaded(List<Member> batch) {
+        synchronized (writeMutex) {
+            lock.writeLock().lock();
+            try {
+                for (Member member : batch) {
+                    if (!touchedDuringLoad.contains(member.getId())) {
+                        slots.put(member.getId(), text(member));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void maybeCompact() {
+        Slots current = slots;
+        int dead = current.size - current.liveCount;
+        if (dead >= MIN_DEAD_SLOTS_TO_COMPACT && dead > current.liveCount && loading.compareAndSet(false, true)) {
+            background.execute(this::compact);
+        }
+    }
+
+    private void compact() {
+        try {
+            synchronized (writeMutex) {
+                // Writers wait here; searches keep using the current slots until the swap
+                Slots compacted = slots.compact();
+                lock.writeLock().lock();
+                try {
+                    slots = compacted;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                logger.debug("Compacted member search index to {} members", compacted.liveCount);
+            }
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    private static IntList[] postingLists(Slots slots, String query) {
+        long[] keys = queryKeys(query);
+        IntList[] lists = new IntList[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = slots.postings.get(keys[i]);
+            if (lists[i] == null) {
+                return null;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        return lists;
+    }
+
+    static long[] queryKeys(String query) {
+        if (query.length() == 1) {
+            return new long[] {ONE_CHAR_PREFIX | query.charAt(0)};
+        }
+        if (query.length() == 2) {
+            return new long[] {TWO_CHAR_PREFIX | ((long) query.charAt(0) << 16) | query.charAt(1)};
+        }
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            keys.add(trigram(query, i));
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String text(Member member) {
+        return nullToEmpty(member.getName()) + FIELD_SEPARATOR
+            + nullToEmpty(member.getEmail()) + FIELD_SEPARATOR
+            + nullToEmpty(member.getPhoneNumber());
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Growable sorted int array; slots are only ever appended in increasing order.
+     */
+    static final class IntList {
+        int[] values;
+        int size;
+
+        IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+
+        /** Index of the first element >= value, searching from {@code from}. */
+        int seek(int from, int value) {
+            // Gallop first: consecutive lookups during an intersection are usually close together
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && values[high] < value) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * The index proper. Guarded by the enclosing lock: mutated under the write
+     * lock, read under the read lock.
+     */
+    private static final class Slots {
+        String[] ids;
+        // name, email and phone number joined by FIELD_SEPARATOR, original case
+        String[] texts;
+        final BitSet live = new BitSet();
+        final Map<String, Integer> slotById = new HashMap<>();
+        final Map<Long, IntList> postings = new HashMap<>();
+        int size;
+        int liveCount;
+
+        Slots(int capacity) {
+            ids = new String[capacity];
+            texts = new String[capacity];
+        }
+
+        void put(String id, String text) {
+            Integer existing = slotById.get(id);
+            if (existing != null) {
+                if (text.equals(texts[existing])) {
+                    return;
+                }
+                kill(existing);
+            }
+            if (size == ids.length) {
+                int capacity = ids.length + (ids.length >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+            }
+            int slot = size++;
+            ids[slot] = id;
+            texts[slot] = text;
+            live.set(slot);
+            liveCount++;
+            slotById.put(id, slot);
+            for (long key : documentKeys(text)) {
+                postings.computeIfAbsent(key, k -> new IntList(4)).add(slot);
+            }
+        }
+
+        void remove(String id) {
+            Integer slot = slotById.remove(id);
+            if (slot != null) {
+                kill(slot);
+            }
+        }
+
+        private void kill(int slot) {
+            live.clear(slot);
+            texts[slot] = null;
+            liveCount--;
+        }
+
+        List<Member> collect(IntList[] lists, String query, int limit) {
+            List<Member> results = new ArrayList<>(limit);
+            IntList smallest = lists[0];
+            int[] cursors = new int[lists.length];
+            candidates:
+            for (int i = 0; i < smallest.size; i++) {
+                int slot = smallest.values[i];
+                if (!live.get(slot)) {
+                    continue;
+                }
+                for (int j = 1; j < lists.length; j++) {
+                    cursors[j] = lists[j].seek(cursors[j], slot);
+                    if (cursors[j] == lists[j].size) {
+                        break candidates;
+                    }
+                    if (lists[j].values[cursors[j]] != slot) {
+                        continue candidates;
+                    }
+                }
+                // Trigrams may all be present without being adjacent; confirm against the text
+                if (query.length() <= 3 || containsIgnoreCase(texts[slot], query)) {
+                    results.add(member(slot));
+                    if (results.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        }
+
+        private Member member(int slot) {
+            String text = texts[slot];
+            int first = text.indexOf(FIELD_SEPARATOR);
+            int second = text.indexOf(FIELD_SEPARATOR, first + 1);
+            return new Member(ids[slot], text.substring(0, first), text.substring(first + 1, second),
+                text.substring(second + 1));
+        }
+
+        Slots compact() {
+            Slots compacted = new Slots(Math.max(1024, liveCount + (liveCount >> 2)));
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                compacted.put(ids[slot], texts[slot]);
+            }
+            return compacted;
+        }
+
+        private static long[] documentKeys(String text) {
+            Set<Long> keys = new HashSet<>();
+            for (String field : text.split(String.valueOf(FIELD_SEPARATOR), -1)) {
+                String normalized = normalize(field);
+                for (int i = 0; i + 3 <= normalized.length(); i++) {
+                    keys.add(trigram(normalized, i));
+                }
+                for (int i = 0; i < normalized.length(); i++) {
+                    if (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1))) {
+                        keys.add(ONE_CHAR_PREFIX | normalized.charAt(i));
+                        if (i + 1 < normalized.length()) {
+                            keys.add(TWO_CHAR_PREFIX | ((long) normalized.charAt(i) << 16) | normalized.charAt(i + 1));
+                        }
+                    }
+                }
+            }
+            return keys.stream().mapToLong(Long::longValue).toArray();
+        }
+
+        private static boolean containsIgnoreCase(String text, String query) {
+            for (int i = 0; i + query.length() <= text.length(); i++) {
+                if (text.regionMatches(true, i, query, 0, query.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package com.example.kitchensink.service;
 
+import com.example.kitchensink.exception.DuplicateResourceException;
 import com.example.kitchensink.model.Member;
 import com.example.kitchensink.repository.MemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final MemberEmailFilter memberEmailFilter;
 
     @Autowired
-    public MemberService(MemberRepository memberRepository) {
+    public MemberService(MemberRepository memberRepository, MemberEmailFilter memberEmailFilter) {
         this.memberRepository = memberRepository;
+        this.memberEmailFilter = memberEmailFilter;
     }
 
     public List<Member> getAllMembers() {
@@ -27,26 +34,79 @@ public class MemberService {
     }
 
     public Member createMember(Member member) {
-        return memberRepository.save(member);
+        try {
+            return memberRepository.save(member);
+        } catch (DuplicateKeyException e) {
+            throw duplicateEmail();
+        }
     }
 
     public Optional<Member> updateMember(String id, Member memberDetails) {
-        return memberRepository.findById(id)
-                .map(member -> {
-                    member.setName(memberDetails.getName());
-                    member.setEmail(memberDetails.getEmail());
-                    member.setPhoneNumber(memberDetails.getPhoneNumber());
-                    return memberRepository.save(member);
-                });
+        return updateMember(id, memberDetails, null);
+    }
+
+    /**
+     * Sets the non-null fields of {@code changes} in one round trip.
+     *
+     * @param expectedVersion version the caller last saw, or null to update unconditionally
+     * @throws OptimisticLockingFailureException if the member exists at another version
+     */
+    public Optional<Member> updateMember(String id, Member changes, Long expectedVersion) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (changes.getName() != null) {
+            fields.put("name", changes.getName());
+        }
+        if (changes.getEmail() != null) {
+            fields.put("email", changes.getEmail());
+        }
+        if (changes.getPhoneNumber() != null) {
+            fields.put("phoneNumber", changes.getPhoneNumber());
+        }
+        Member updated;
+        try {
+            updated = memberRepository.updateIfMatches(id, expectedVersion, fields);
+        } catch (DuplicateKeyException e) {
+            throw duplicateEmail();
+        }
+        if (updated == null) {
+            checkNotModified(id, expectedVersion);
+        } else if (changes.getEmail() != null) {
+            // findAndModify fires no save event, so the filter would not see the new email
+            memberEmailFilter.put(changes.getEmail());
+        }
+        return Optional.ofNullable(updated);
     }
 
     public boolean deleteMember(String id) {
-        return memberRepository.findById(id)
-                .map(member -> {
-                    memberRepository.delete(member);
-                    return true;
-                })
-                .orElse(false);
+        return deleteMember(id, null);
+    }
+
+    /**
+     * Deletes in one round trip.
+     *
+     * @param expectedVersion version the caller last saw, or null to delete unconditionally
+     * @throws OptimisticLockingFailureException if the member exists at another version
+     */
+    public boolean deleteMember(String id, Long expectedVersion) {
+        if (memberRepository.deleteIfMatches(id, expectedVersion)) {
+            return true;
+        }
+        checkNotModified(id, expectedVersion);
+        return false;
     }
-}
 
+    /**
+     * Email is the only unique member field, so any duplicate key error is about it.
+     */
+    public static DuplicateResourceException duplicateEmail() {
+        return new DuplicateResourceException("Email address is already in use", "email");
+    }
+
+    // Only a guarded write that missed needs the second query, to tell a conflict from a missing member
+    private void checkNotModified(String id, Long expectedVersion) {
+        if (expectedVersion != null && memberRepository.existsById(id)) {
+            throw new OptimisticLockingFailureException(
+                    "Member " + id + " was modified since version " + expectedVersion);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.model.Member;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for member creates. Callers queue their member and wait while a
+ * single writer thread collects up to {@code app.memberWriteBehindMaxBatch}
+ * members, or whatever arrived within {@code app.memberWriteBehindMaxDelayMs}
+ * of the first one, and inserts them with one unordered insertMany. Each caller
+ * returns only once its own document is written at the configured write concern,
+ * or fails with the error for that document alone.
+ * <p>
+ * The insert bypasses the repository, so after-save events are published here
+ * for the members that were written.
+ * <p>
+ * No caller is left waiting: a caller gives up after maxDelayMs plus
+ * {@code app.memberWriteBehindWriteTimeoutMs}, and when the writer stops, on
+ * shutdown or after an error, everything still queued fails with 503.
+ */
+@Service
+public class MemberWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(MemberWriteBehind.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    @Value("${app.memberWriteBehindEnabled:false}")
+    private boolean enabled;
+
+    @Value("${app.memberWriteBehindMaxBatch:500}")
+    private int maxBatch = 500;
+
+    @Value("${app.memberWriteBehindMaxDelayMs:5}")
+    private long maxDelayMs = 5;
+
+    @Value("${app.memberWriteBehindQueueCapacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${app.memberWriteBehindWriteConcern:ACKNOWLEDGED}")
+    private String writeConcernName = "ACKNOWLEDGED";
+
+    @Value("${app.memberWriteBehindRetryAfterSeconds:1}")
+    private long retryAfterSeconds = 1;
+
+    @Value("${app.memberWriteBehindWriteTimeoutMs:10000}")
+    private long writeTimeoutMs = 10000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile WriteConcern writeConcern;
+    private volatile BlockingQueue<PendingInsert> queue;
+    private volatile Thread writer;
+    // Guards stopped against offers, so nothing is queued once the writer may have finished
+    private final Object stopLock = new Object();
+    private volatile boolean stopped;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the member for the next group insert and waits for it.
+     *
+     * @throws DuplicateKeyException if the email is taken
+     * @throws ServiceUnavailableException if the buffer is full
+     */
+    public Member insert(Member member) {
+        PendingInsert pending = new PendingInsert(member, new CompletableFuture<>());
+        BlockingQueue<PendingInsert> pendingInserts = queue();
+        boolean queued;
+        synchronized (stopLock) {
+            queued = !stopped && pendingInserts.offer(pending);
+        }
+        if (!queued) {
+            throw new ServiceUnavailableException("Too many member creates in flight, please retry shortly",
+                retryAfterSeconds);
+        }
+        try {
+            return pending.result().orTimeout(maxDelayMs + writeTimeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                // The insert may still land; a retry then fails on the unique email
+                throw new ServiceUnavailableException("Member create did not complete in time, please retry",
+                    retryAfterSeconds);
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void run() {
+        BlockingQueue<PendingInsert> pendingInserts = queue;
+        List<PendingInsert> batch = new ArrayList<>(maxBatch);
+        try {
+            writeUntilStopped(pendingInserts, batch);
+        } finally {
+            // Reached on shutdown, or when an Error ends the loop early
+            stop();
+            ServiceUnavailableException failure = new ServiceUnavailableException(
+                "Member writes are shutting down, please retry", retryAfterSeconds);
+            failBatch(batch, failure);
+            List<PendingInsert> leftover = new ArrayList<>();
+            pendingInserts.drainTo(leftover);
+            failBatch(leftover, failure);
+        }
+    }
+
+    private void writeUntilStopped(BlockingQueue<PendingInsert> pendingInserts, List<PendingInsert> batch) {
+        while (!stopped || !pendingInserts.isEmpty()) {
+            try {
+                PendingInsert first = pendingInserts.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // The first caller waits at most maxDelayMs for others to join its batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < maxBatch) {
+                    if (pendingInserts.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingInsert next = remaining > 0 ? pendingInserts.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down; write what has been collected, then drain the rest
+                stop();
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    flush(batch);
+                } catch (RuntimeException e) {
+                    // No caller may be left waiting; completing an already completed future is a no-op
+                    logger.error("Member group insert failed: {}", e.getMessage());
+                    failBatch(batch, e);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<PendingInsert> batch) {
+        List<Document> documents = new ArrayList<>(batch.size());
+        for (PendingInsert pending : batch) {
+            Member member = pending.member();
+            if (member.getId() == null) {
+                member.setId(new ObjectId().toHexString());
+            }
+            if (member.getVersion() == null) {
+                member.setVersion(0L);
+            }
+            Document document = new Document();
+            mongoTemplate.getConverter().write(member, document);
+            documents.add(document);
+        }
+
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        RuntimeException batchFailure = null;
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Member.class))
+                .withWriteConcern(writeConcern)
+                .insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                failures.put(error.getIndex(), error.getCode() == DUPLICATE_KEY
+                    ? new DuplicateKeyException(error.getMessage())
+                    : new DataIntegrityViolationException(error.getMessage()));
+            }
+            if (e.getWriteConcernError() != null) {
+                // Written on the primary but not confirmed at the requested write concern
+                batchFailure = translate(e);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Member group insert of {} failed: {}", batch.size(), e.getMessage());
+            failBatch(batch, translate(e));
+            return;
+        }
+
+        int inserted = 0;
+        String collectionName = mongoTemplate.getCollectionName(Member.class);
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failures.containsKey(i)) {
+                inserted++;
+                eventPublisher.publishEvent(new AfterSaveEvent<>(batch.get(i).member(), documents.get(i),
+                    collectionName));
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingInsert pending = batch.get(i);
+            RuntimeException failure = failures.getOrDefault(i, batchFailure);
+            if (failure != null) {
+                pending.result().completeExceptionally(failure);
+            } else {
+                pending.result().complete(pending.member());
+            }
+        }
+        logger.debug("Member group insert: {} of {} written", inserted, batch.size());
+    }
+
+    private static void failBatch(List<PendingInsert> batch, RuntimeException failure) {
+        for (PendingInsert pending : batch) {
+            pending.result().completeExceptionally(failure);
+        }
+    }
+
+    private RuntimeException translate(RuntimeException e) {
+        DataAccessException translated = mongoTemplate.getExceptionTranslator().translateExceptionIfPossible(e);
+        return translated != null ? translated : e;
+    }
+
+    private BlockingQueue<PendingInsert> queue() {
+        BlockingQueue<PendingInsert> current = queue;
+        if (current == null) {
+            synchronized (this) {
+                current = queue;
+                if (current == null) {
+                    // Named constants such as ACKNOWLEDGED, W1, MAJORITY or JOURNALED
+                    WriteConcern named = WriteConcern.valueOf(writeConcernName);
+                    if (named == null) {
+                        throw new IllegalStateException("Unknown write concern: " + writeConcernName);
+                    }
+                    writeConcern = named;
+                    current = new ArrayBlockingQueue<>(queueCapacity);
+                    queue = current;
+                    Thread thread = new Thread(this::run, "member-write-behind");
+                    thread.setDaemon(true);
+                    thread.start();
+                    writer = thread;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Stops accepting creates and writes out everything already queued.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stop();
+        Thread thread = writer;
+        if (thread != null) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void stop() {
+        synchronized (stopLock) {
+            stopped = true;
+        }
+    }
+
+    record PendingInsert(Member member, CompletableFuture<Member> result) {
+    }
+}
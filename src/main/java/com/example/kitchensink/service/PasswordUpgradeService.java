@@ -0,0 +1,54 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.model.User;
+import com.example.kitchensink.security.UserDetailsServiceImpl;
+import com.mongodb.client.result.UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PasswordUpgradeService {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUpgradeService.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    /**
+     * Re-encodes the password with the current encoder and stores it, but only if
+     * the stored hash is still the one that was verified, so a concurrent password
+     * change is never overwritten.
+     */
+    @Async
+    public void upgradePassword(String userId, String rawPassword, String currentHash) {
+        String upgradedHash;
+        try {
+            upgradedHash = passwordEncoder.encode(rawPassword);
+        } catch (ServiceUnavailableException e) {
+            logger.debug("Skipping password upgrade for user {}: {}", userId, e.getMessage());
+            return;
+        }
+
+        Query query = Query.query(Criteria.where("_id").is(userId).and("password").is(currentHash));
+        UpdateResult result = mongoTemplate.updateFirst(query, Update.update("password", upgradedHash), User.class);
+        if (result.getModifiedCount() > 0) {
+            // updateFirst bypasses the repository save events, so evict cached details here
+            userDetailsService.evictById(userId);
+            logger.info("Upgraded password encoding for user {}", userId);
+        }
+    }
+}
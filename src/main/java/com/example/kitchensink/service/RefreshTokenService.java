@@ -1,38 +1,146 @@
 package com.example.kitchensink.service;
 
 import com.example.kitchensink.model.RefreshToken;
+import com.example.kitchensink.model.User;
 import com.example.kitchensink.repository.RefreshTokenRepository;
+import com.example.kitchensink.security.SecureTokenGenerator;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class RefreshTokenService {
     @Value("${app.refreshTokenExpirationMs}")
     private Long refreshTokenDurationMs;
 
+    @Value("${app.refreshTokenMaxSessions:5}")
+    private int maxSessions = 5;
+
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     public Optional<RefreshToken> findByToken(String token) {
         return refreshTokenRepository.findByToken(token);
     }
 
+    /**
+     * Loads the refresh token and its user in a single aggregation round trip,
+     * using the unique token index and a $lookup on users. The user is null if
+     * the token references a user that no longer exists.
+     */
+    public Optional<TokenWithUser> findByTokenWithUser(String token) {
+        List<Document> pipeline = List.of(
+            new Document("$match", new Document("token", token)),
+            new Document("$limit", 1),
+            new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(User.class))
+                // userId is stored as a string while users._id is usually an ObjectId
+                .append("let", new Document("userId", new Document("$convert", new Document("input", "$userId")
+                    .append("to", "objectId")
+                    .append("onError", "$userId"))))
+                .append("pipeline", List.of(
+                    new Document("$match", new Document("$expr",
+                        new Document("$eq", List.of("$_id", "$$userId")))),
+                    new Document("$limit", 1)))
+                .append("as", "user")));
+
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(RefreshToken.class))
+            .aggregate(pipeline)
+            .first();
+        if (result == null) {
+            return Optional.empty();
+        }
+
+        List<Document> users = result.getList("user", Document.class);
+        result.remove("user");
+        MongoConverter converter = mongoTemplate.getConverter();
+        RefreshToken refreshToken = converter.read(RefreshToken.class, result);
+        User user = users == null || users.isEmpty() ? null : converter.read(User.class, users.get(0));
+        return Optional.of(new TokenWithUser(refreshToken, user));
+    }
+
     public RefreshToken createRefreshToken(String userId) {
+        return createRefreshToken(userId, null);
+    }
+
+    /**
+     * Opens a new session for the user. Existing sessions on other devices are kept;
+     * once the user has more than the configured number of sessions, the oldest
+     * ones are revoked.
+     */
+    public RefreshToken createRefreshToken(String userId, String deviceName) {
+        Instant now = Instant.now();
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setUserId(userId);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
+        refreshToken.setToken(SecureTokenGenerator.nextToken());
+        refreshToken.setDeviceName(deviceName);
+        refreshToken.setCreatedAt(now);
+        refreshToken.setLastUsedAt(now);
+        refreshToken.setExpiryDate(now.plusMillis(refreshTokenDurationMs));
 
-        // Delete any existing refresh token for this user
-        refreshTokenRepository.findByUserId(userId)
-            .ifPresent(token -> refreshTokenRepository.delete(token));
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        enforceSessionLimit(userId, saved.getId());
+        return saved;
+    }
+
+    /**
+     * Atomically replaces the token value and extends the session in a single
+     * findAndModify. Returns empty if the token was already rotated or revoked,
+     * so a refresh token can only ever be exchanged once.
+     */
+    public Optional<RefreshToken> rotate(RefreshToken current) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("token").is(current.getToken()));
+        Update update = new Update()
+            .set("token", SecureTokenGenerator.nextToken())
+            .set("lastUsedAt", now)
+            .set("expiryDate", now.plusMillis(refreshTokenDurationMs));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), RefreshToken.class));
+    }
 
-        return refreshTokenRepository.save(refreshToken);
+    /**
+     * Ends a single session, returning it if it existed.
+     */
+    public Optional<RefreshToken> revokeSession(String token) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(
+            Query.query(Criteria.where("token").is(token)), RefreshToken.class));
+    }
+
+    /**
+     * Under the limit this is one read on userId_createdAt that finds nothing.
+     * Over it, the ids of the sessions past the limit are read and removed by
+     * _id with one delete. The new session is excluded from the read, so a
+     * createdAt tie at millisecond precision can never revoke it.
+     */
+    private void enforceSessionLimit(String userId, String keepId) {
+        if (maxSessions <= 0) {
+            return;
+        }
+        Query stale = Query.query(Criteria.where("userId").is(userId).and("_id").ne(keepId))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+            .skip(maxSessions - 1);
+        stale.fields().include("_id");
+        List<String> staleIds = mongoTemplate.find(stale, RefreshToken.class).stream()
+            .map(RefreshToken::getId)
+            .toList();
+        if (!staleIds.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(staleIds)), RefreshToken.class);
+        }
     }
 
     public RefreshToken verifyExpiration(RefreshToken token) {
@@ -43,7 +151,13 @@ public class RefreshTokenService {
         return token;
     }
 
+    /**
+     * Revokes every session of the user with a single bulk delete.
+     */
     public void deleteByUserId(String userId) {
         refreshTokenRepository.deleteByUserId(userId);
     }
+
+    public record TokenWithUser(RefreshToken refreshToken, User user) {
+    }
 } 
\ No newline at end of file
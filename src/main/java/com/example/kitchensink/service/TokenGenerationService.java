@@ -0,0 +1,103 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.model.User;
+import com.example.kitchensink.security.UserDetailsServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Tracks each user's token generation. Access tokens carry the generation they
+ * were issued under; bumping it (on logout or role changes) invalidates every
+ * access token issued before. Generations are cached per node for a short TTL
+ * so stateless authentication costs at most one small lookup per user per TTL;
+ * the cache holds at most {@code app.tokenGenerationCacheMaxSize} users.
+ */
+@Service
+public class TokenGenerationService {
+    private static final String FIELD = "tokenGeneration";
+
+    @Value("${app.tokenGenerationCacheTtlMs:30000}")
+    private long cacheTtlMs = 30000;
+
+    @Value("${app.tokenGenerationCacheMaxSize:10000}")
+    private long cacheMaxSize = 10000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    private volatile Cache<String, Long> cache;
+
+    public boolean isCurrent(String userId, long tokenGeneration) {
+        Long current = currentGeneration(userId);
+        return current != null && current == tokenGeneration;
+    }
+
+    /**
+     * Invalidates all access tokens previously issued to the user.
+     */
+    public void revokeAll(String userId) {
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        query.fields().include(FIELD);
+        User updated = mongoTemplate.findAndModify(query, new Update().inc(FIELD, 1L),
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        // findAndModify bypasses the repository save events, so evict cached details here
+        userDetailsService.evictById(userId);
+        if (updated == null) {
+            getCache().invalidate(userId);
+        } else {
+            getCache().put(userId, updated.getTokenGeneration());
+        }
+    }
+
+    public void evict(String userId) {
+        getCache().invalidate(userId);
+    }
+
+    public Cache<String, Long> getCache() {
+        Cache<String, Long> current = cache;
+        if (current == null) {
+            synchronized (this) {
+                current = cache;
+                if (current == null) {
+                    current = Caffeine.newBuilder()
+                            .maximumSize(cacheMaxSize)
+                            .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                            .recordStats()
+                            .build();
+                    cache = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Long currentGeneration(String userId) {
+        Long cached = getCache().getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        query.fields().include(FIELD);
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null) {
+            getCache().invalidate(userId);
+            return null;
+        }
+        getCache().put(userId, user.getTokenGeneration());
+        return user.getTokenGeneration();
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.BulkRegisterResponse;
+import com.example.kitchensink.dto.RegisterRequest;
+import com.example.kitchensink.exception.DuplicateResourceException;
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.model.Role;
+import com.example.kitchensink.model.User;
+import com.example.kitchensink.repository.UserRepository;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates user accounts. Uniqueness of username and email is enforced by the
+ * unique indexes alone: a registration is a single insert, and a duplicate key
+ * error is reported as a conflict on the offending field.
+ */
+@Service
+public class UserRegistrationService {
+    private static final Logger logger = LoggerFactory.getLogger(UserRegistrationService.class);
+
+    private static final int BULK_CHUNK_SIZE = 1000;
+    private static final int HASH_RETRIES = 3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${app.bulkRegistrationHashParallelism:0}")
+    private int hashParallelism;
+
+    private volatile ExecutorService hashingClients;
+
+    public User register(RegisterRequest request) {
+        User user = newUser(request, passwordEncoder.encode(request.getPassword()));
+        try {
+            return userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            String field = DuplicateResourceException.duplicateField(e.getMessage(), "username", "email");
+            throw new DuplicateResourceException(duplicateMessage(field), field);
+        }
+    }
+
+    /**
+     * Registers many users at once. Passwords are hashed in parallel, and each
+     * chunk is written with one unordered bulk insert, so a duplicate only fails
+     * its own entry and the rest of the chunk is still inserted.
+     * <p>
+     * If hashing fails on the first chunk, nothing has been written and the
+     * error is thrown. On a later chunk, the earlier chunks are already
+     * committed, so the result reports them as usual and lists every entry from
+     * the failed chunk on as a failure, for the caller to retry.
+     */
+    public BulkRegisterResponse registerAll(List<RegisterRequest> requests) {
+        List<BulkRegisterResponse.Failure> failures = new ArrayList<>();
+        int registered = 0;
+
+        for (int start = 0; start < requests.size(); start += BULK_CHUNK_SIZE) {
+            List<RegisterRequest> chunk = requests.subList(start, Math.min(start + BULK_CHUNK_SIZE, requests.size()));
+            List<String> hashes;
+            try {
+                hashes = hashAll(chunk);
+            } catch (RuntimeException e) {
+                if (start == 0) {
+                    throw e;
+                }
+                logger.warn("Bulk registration stopped at entry {} of {}: {}", start, requests.size(), e.getMessage());
+                for (int index = start; index < requests.size(); index++) {
+                    failures.add(new BulkRegisterResponse.Failure(index, requests.get(index).getUsername(), null,
+                        "Not registered: " + e.getMessage()));
+                }
+                break;
+            }
+            registered += insertChunk(start, chunk, hashes, failures);
+        }
+
+        logger.info("Bulk registration: {} of {} users registered", registered, requests.size());
+        return new BulkRegisterResponse(requests.size(), registered, failures);
+    }
+
+    private List<String> hashAll(List<RegisterRequest> chunk) {
+        // Each client blocks on the bounded hashing pool, so at most this many bulk
+        // hashes are queued at once and logins keep their share of the queue
+        ExecutorService clients = hashingClients();
+        List<CompletableFuture<String>> hashes = chunk.stream()
+            .map(request -> CompletableFuture.supplyAsync(() -> encodeWithRetry(request.getPassword()), clients))
+            .toList();
+        try {
+            return hashes.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            hashes.forEach(hash -> hash.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private String encodeWithRetry(String rawPassword) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return passwordEncoder.encode(rawPassword);
+            } catch (ServiceUnavailableException e) {
+                if (attempt >= HASH_RETRIES) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(e.getRetryAfterSeconds() * 1000L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private int insertChunk(int offset, List<RegisterRequest> chunk, List<String> hashes,
+                            List<BulkRegisterResponse.Failure> failures) {
+        List<User> users = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            users.add(newUser(chunk.get(i), hashes.get(i)));
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        bulk.insert(users);
+        try {
+            return bulk.execute().getInsertedCount();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                RegisterRequest request = chunk.get(error.getIndex());
+                String field = DuplicateResourceException.duplicateField(error.getMessage(), "username", "email");
+                String message = field != null || error.getCode() == 11000
+                    ? duplicateMessage(field)
+                    : error.getMessage();
+                failures.add(new BulkRegisterResponse.Failure(offset + error.getIndex(),
+                    request.getUsername(), field, message));
+            }
+            return e.getResult().getInsertedCount();
+        }
+    }
+
+    private static User newUser(RegisterRequest request, String passwordHash) {
+        User user = new User(request.getUsername(), request.getEmail(), passwordHash);
+        Set<Role> roles = new HashSet<>();
+        roles.add(Role.ROLE_USER);
+        user.setRoles(roles);
+        return user;
+    }
+
+    private static String duplicateMessage(String field) {
+        if ("username".equals(field)) {
+            return "Username is already taken!";
+        }
+        if ("email".equals(field)) {
+            return "Email is already in use!";
+        }
+        return "User already exists!";
+    }
+
+    private ExecutorService hashingClients() {
+        ExecutorService current = hashingClients;
+        if (current == null) {
+            synchronized (this) {
+                current = hashingClients;
+                if (current == null) {
+                    int threads = hashParallelism > 0
+                        ? hashParallelism
+                        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                    AtomicInteger threadCount = new AtomicInteger();
+                    current = Executors.newFixedThreadPool(threads, runnable -> {
+                        Thread thread = new Thread(runnable, "bulk-register-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    hashingClients = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hashingClients != null) {
+            hashingClients.shutdownNow();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.kitchensink.validation;
 
 import com.example.kitchensink.repository.MemberRepository;
+import com.example.kitchensink.service.MemberEmailFilter;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,11 +11,18 @@ public class UniqueEmailValidator implements ConstraintValidator<UniqueEmail, St
     @Autowired
     private MemberRepository memberRepository;
 
+    @Autowired
+    private MemberEmailFilter memberEmailFilter;
+
     @Override
     public boolean isValid(String email, ConstraintValidatorContext context) {
         if (email == null) {
             return true;
         }
+        // Most new members bring a new email; only possible matches cost a query
+        if (!memberEmailFilter.mightExist(email)) {
+            return true;
+        }
         return !memberRepository.existsByEmail(email);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.example.kitchensink.benchmark;
+
+import com.example.kitchensink.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of JWT authentication before and after the
+ * verify-once API. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kitchensink.benchmark.JwtUtilsBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilsBenchmark {
+    private static final String SECRET =
+            "9a4f2c8d3b7a1e6f45c8a0b3f267d8b1d4e6f3c8a9d2b5f8e3a7c4d9f1b6e8a4c7d2b5f9a8e3c6b1d4f7a2e5c8b3d6a9f1e4c7";
+
+    private JwtUtils cachedUtils;
+    private JwtUtils uncachedUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedUtils = newJwtUtils(10000);
+        uncachedUtils = newJwtUtils(0);
+        token = cachedUtils.generateTokenFromUsername("benchmark-user");
+    }
+
+    /** The original filter path: validate, then parse again, rebuilding key and parser each time. */
+    @Benchmark
+    public String legacyValidateThenParse() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    /** One verification with a pre-built parser, no verified-token cache. */
+    @Benchmark
+    public Claims verifyOnceUncached() {
+        return uncachedUtils.parseClaims(token);
+    }
+
+    /** Repeat calls with the same token, served from the verified-token cache. */
+    @Benchmark
+    public Claims verifyOnceCached() {
+        return cachedUtils.parseClaims(token);
+    }
+
+    /** Garbage tokens should be rejected without any base64 or HMAC work. */
+    @Benchmark
+    public Object rejectMalformed() {
+        try {
+            return cachedUtils.parseClaims("not-a-jwt");
+        } catch (MalformedJwtException e) {
+            return e;
+        }
+    }
+
+    private static JwtUtils newJwtUtils(int cacheSize) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", 3600000);
+        ReflectionTestUtils.setField(utils, "jwtVerifiedCacheSize", cacheSize);
+        return utils;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtUtilsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
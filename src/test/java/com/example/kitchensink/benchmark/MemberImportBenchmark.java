@@ -0,0 +1,101 @@
+package com.example.kitchensink.benchmark;
+
+import com.example.kitchensink.dto.MemberImportResponse;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.example.kitchensink.service.MemberCounter;
+import com.example.kitchensink.service.MemberImportService;
+import com.mongodb.bulk.BulkWriteResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rows per second through the import pipeline (parse, parallel validation,
+ * batching) for a 50,000-row upload, with Mongo stubbed out so only the
+ * application side is measured. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kitchensink.benchmark.MemberImportBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemberImportBenchmark {
+    private static final int ROWS = 50_000;
+
+    @Param({"NDJSON", "CSV"})
+    private MemberImportService.Format format;
+
+    private MemberImportService importService;
+    private byte[] upload;
+
+    @Setup
+    public void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Member.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of());
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1000, 0, 0, 0, List.of(), List.of()));
+
+        importService = new MemberImportService();
+        ReflectionTestUtils.setField(importService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(importService, "memberMapper", new MemberMapper());
+        ReflectionTestUtils.setField(importService, "memberCounter", mock(MemberCounter.class));
+
+        StringBuilder body = new StringBuilder(ROWS * 80);
+        if (format == MemberImportService.Format.CSV) {
+            body.append("name,email,phoneNumber\n");
+        }
+        for (int i = 0; i < ROWS; i++) {
+            String name = "Member " + (char) ('A' + i % 26) + (char) ('a' + i / 26 % 26);
+            String email = "member" + i + "@example.com";
+            String phone = "1555" + String.format("%07d", i);
+            if (format == MemberImportService.Format.CSV) {
+                body.append(name).append(',').append(email).append(',').append(phone).append('\n');
+            } else {
+                body.append("{\"name\":\"").append(name).append("\",\"email\":\"").append(email)
+                        .append("\",\"phoneNumber\":\"").append(phone).append("\"}\n");
+            }
+        }
+        upload = body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** One full upload per operation; multiply the score by 50,000 for rows per second. */
+    @Benchmark
+    public MemberImportResponse importUpload() throws Exception {
+        return importService.importMembers(new ByteArrayInputStream(upload), format);
+    }
+
+    @TearDown
+    public void tearDown() {
+        importService.shutdown();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MemberImportBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.kitchensink.benchmark;
+
+import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application-side cost of one 100-member page, full versus {@code fields=id,name}:
+ * decoding the BSON Mongo sends back, mapping to DTOs and writing the JSON
+ * body. Wire sizes of both are printed on setup. Mongo's own savings (fewer
+ * bytes read and sent) come on top of these. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kitchensink.benchmark.MemberProjectionBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemberProjectionBenchmark {
+    private static final int PAGE_SIZE = 100;
+    private static final Set<String> ID_AND_NAME = Set.of("name");
+
+    private final DocumentCodec codec = new DocumentCodec();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MemberMapper memberMapper = new MemberMapper();
+    private MappingMongoConverter converter;
+    private List<byte[]> fullPage;
+    private List<byte[]> projectedPage;
+
+    @Setup
+    public void setUp() throws Exception {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        fullPage = new ArrayList<>();
+        projectedPage = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            ObjectId id = new ObjectId();
+            String name = "Member Number " + (char) ('A' + i % 26);
+            fullPage.add(raw(new Document("_id", id).append("name", name)
+                    .append("email", "member" + i + "@example.com")
+                    .append("phoneNumber", "+1555" + String.format("%07d", i))
+                    .append("_class", Member.class.getName())));
+            projectedPage.add(raw(new Document("_id", id).append("name", name)));
+        }
+
+        System.out.printf("%nBSON page: %d bytes full, %d bytes projected%n",
+                bsonSize(fullPage), bsonSize(projectedPage));
+        System.out.printf("JSON page: %d bytes full, %d bytes projected%n",
+                objectMapper.writeValueAsBytes(full()).length, objectMapper.writeValueAsBytes(projected()).length);
+    }
+
+    @Benchmark
+    public byte[] full() throws Exception {
+        List<MemberDto> page = new ArrayList<>(PAGE_SIZE);
+        for (byte[] bson : fullPage) {
+            page.add(memberMapper.toDto(converter.read(Member.class, decode(bson))));
+        }
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] projected() throws Exception {
+        List<MemberDto> page = new ArrayList<>(PAGE_SIZE);
+        for (byte[] bson : projectedPage) {
+            page.add(memberMapper.toDto(converter.read(Member.class, decode(bson)), ID_AND_NAME));
+        }
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    // What the driver does with each document of a reply before the converter sees it
+    private Document decode(byte[] bson) {
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+    }
+
+    private byte[] raw(Document document) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        codec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private static int bsonSize(List<byte[]> page) {
+        return page.stream().mapToInt(bson -> bson.length).sum();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MemberProjectionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
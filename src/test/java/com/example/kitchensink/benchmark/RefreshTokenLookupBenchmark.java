@@ -0,0 +1,145 @@
+package com.example.kitchensink.benchmark;
+
+import com.example.kitchensink.model.RefreshToken;
+import com.example.kitchensink.model.User;
+import com.example.kitchensink.service.RefreshTokenService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures refresh-token lookups against a collection of one million tokens,
+ * with and without the token/userId indexes, and compares the two-query
+ * refresh path with the single aggregation round trip. Requires a running
+ * MongoDB (override with -Dbenchmark.mongoUri=...). Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kitchensink.benchmark.RefreshTokenLookupBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RefreshTokenLookupBenchmark {
+    private static final String DATABASE = "KitchenSink_Benchmark";
+    private static final int TOKEN_COUNT = 1_000_000;
+    private static final int USER_COUNT = 10_000;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private MongoCollection<Document> tokens;
+    private MongoCollection<Document> users;
+    private RefreshTokenService refreshTokenService;
+    private List<String> sampleTokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongoClient = MongoClients.create(System.getProperty("benchmark.mongoUri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+        tokens = mongoTemplate.getCollection(mongoTemplate.getCollectionName(RefreshToken.class));
+        users = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+        tokens.drop();
+        users.drop();
+
+        List<ObjectId> userIds = new ArrayList<>(USER_COUNT);
+        List<Document> userBatch = new ArrayList<>(USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            ObjectId id = new ObjectId();
+            userIds.add(id);
+            userBatch.add(new Document("_id", id)
+                .append("username", "user" + i)
+                .append("email", "user" + i + "@example.com")
+                .append("password", "hash")
+                .append("roles", List.of("ROLE_USER")));
+        }
+        users.insertMany(userBatch);
+
+        sampleTokens = new ArrayList<>();
+        Date expiry = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            String token = UUID.randomUUID().toString();
+            if (i % 1000 == 0) {
+                sampleTokens.add(token);
+            }
+            batch.add(new Document("token", token)
+                .append("userId", userIds.get(i % USER_COUNT).toHexString())
+                .append("expiryDate", expiry));
+            if (batch.size() == BATCH_SIZE) {
+                tokens.insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+
+        if (indexed) {
+            tokens.createIndex(Indexes.ascending("token"), new IndexOptions().unique(true));
+            tokens.createIndex(Indexes.ascending("userId"));
+            tokens.createIndex(Indexes.ascending("expiryDate"), new IndexOptions().expireAfter(0L, TimeUnit.SECONDS));
+        }
+
+        refreshTokenService = new RefreshTokenService();
+        ReflectionTestUtils.setField(refreshTokenService, "mongoTemplate", mongoTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tokens.drop();
+        users.drop();
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public Document findByToken() {
+        return tokens.find(Filters.eq("token", randomToken())).first();
+    }
+
+    /** The original refresh path: token lookup, then a separate user lookup. */
+    @Benchmark
+    public Document tokenThenUser() {
+        Document token = tokens.find(Filters.eq("token", randomToken())).first();
+        return users.find(Filters.eq("_id", new ObjectId(token.getString("userId")))).first();
+    }
+
+    @Benchmark
+    public Object singleAggregation() {
+        return refreshTokenService.findByTokenWithUser(randomToken()).orElseThrow();
+    }
+
+    private String randomToken() {
+        return sampleTokens.get(ThreadLocalRandom.current().nextInt(sampleTokens.size()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RefreshTokenLookupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
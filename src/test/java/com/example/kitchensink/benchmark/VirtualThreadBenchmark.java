@@ -0,0 +1,104 @@
+package com.example.kitchensink.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second when 5,000 requests are in flight at once, each spending
+ * 5 ms in a Mongo round trip that holds one pooled connection. Compares the
+ * 200-thread Tomcat pool with virtual threads, and virtual threads whose wait is
+ * pinned by a synchronized block. This models the executors only; it says
+ * nothing about Tomcat or the HTTP stack at 5,000 open connections, which
+ * {@link VirtualThreadHttpBenchmark} measures. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kitchensink.benchmark.VirtualThreadBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+    private static final int CONCURRENT_REQUESTS = 5_000;
+    private static final int TOMCAT_THREADS = 200;
+    private static final long ROUND_TRIP_MILLIS = 5;
+
+    public enum Mode { PLATFORM, VIRTUAL, VIRTUAL_PINNED }
+
+    @Param({"PLATFORM", "VIRTUAL", "VIRTUAL_PINNED"})
+    private Mode mode;
+
+    // 100 is the driver default; 1000 shows what virtual threads gain from a larger pool
+    @Param({"100", "1000"})
+    private int mongoPoolSize;
+
+    private ExecutorService executor;
+    private Semaphore connections;
+
+    @Setup
+    public void setUp() {
+        executor = mode == Mode.PLATFORM
+                ? Executors.newFixedThreadPool(TOMCAT_THREADS)
+                : Executors.newVirtualThreadPerTaskExecutor();
+        connections = new Semaphore(mongoPoolSize);
+    }
+
+    /** One wave of 5,000 concurrent requests per operation; multiply the score by 5,000 for requests per second. */
+    @Benchmark
+    public int serveConcurrentRequests() throws Exception {
+        List<Future<?>> requests = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            requests.add(executor.submit(mode == Mode.VIRTUAL_PINNED ? this::pinnedRequest : this::request));
+        }
+        for (Future<?> request : requests) {
+            request.get();
+        }
+        return requests.size();
+    }
+
+    private void request() {
+        try {
+            connections.acquire();
+            try {
+                Thread.sleep(ROUND_TRIP_MILLIS);
+            } finally {
+                connections.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void pinnedRequest() {
+        // A private monitor is never contended, but blocking inside it still pins the carrier
+        synchronized (new Object()) {
+            request();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(VirtualThreadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
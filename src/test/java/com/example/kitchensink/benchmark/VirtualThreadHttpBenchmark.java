@@ -0,0 +1,152 @@
+package com.example.kitchensink.benchmark;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second from 5,000 HTTP clients at once, each on its own keep-alive
+ * connection, against embedded Tomcat configured as application.properties
+ * configures it: max-connections 10,000 and either the 200-thread worker pool or
+ * virtual threads, as {@code VirtualThreadConfig} installs them. Each request
+ * holds one of {@code mongoPoolSize} permits for a 5 ms round trip, standing in
+ * for a pooled Mongo connection. Unlike {@link VirtualThreadBenchmark} this goes
+ * through the HTTP stack and real sockets; Mongo itself is still simulated, and
+ * client and server share one machine. If the score stays far below
+ * {@code mongoPoolSize / 5 ms} in every mode, the client (the JDK client reads
+ * every connection from one selector thread) or the loopback is the limit and
+ * the run says nothing about Tomcat; run the client on another host. Needs a
+ * file descriptor limit above 10,000. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kitchensink.benchmark.VirtualThreadHttpBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadHttpBenchmark {
+    private static final int CONCURRENT_REQUESTS = 5_000;
+    private static final int TOMCAT_THREADS = 200;
+    private static final int MAX_CONNECTIONS = 10_000;
+    private static final long ROUND_TRIP_MILLIS = 5;
+
+    public enum Mode { PLATFORM, VIRTUAL }
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private Mode mode;
+
+    // 100 is the driver default; 1000 matches app.virtualThreadMaxConcurrentRequests
+    @Param({"100", "1000"})
+    private int mongoPoolSize;
+
+    private WebServer server;
+    private ExecutorService clientThreads;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        Semaphore connections = new Semaphore(mongoPoolSize);
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        factory.addConnectorCustomizers(connector -> {
+            AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+            protocol.setMaxThreads(TOMCAT_THREADS);
+            protocol.setMaxConnections(MAX_CONNECTIONS);
+            protocol.setMaxKeepAliveRequests(-1);
+            protocol.setAcceptCount(CONCURRENT_REQUESTS);
+        });
+        if (mode == Mode.VIRTUAL) {
+            factory.addProtocolHandlerCustomizers(protocolHandler -> protocolHandler.setExecutor(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory())));
+        }
+        factory.addInitializers(context -> context.addServlet("member", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                try {
+                    connections.acquire();
+                    try {
+                        Thread.sleep(ROUND_TRIP_MILLIS);
+                    } finally {
+                        connections.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"id\":\"1\",\"name\":\"Member\"}");
+            }
+        }).addMapping("/api/members/1"));
+        server = factory.getWebServer();
+        server.start();
+
+        clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        // HTTP/1.1 has one request in flight per connection, so 5,000 concurrent requests
+        // open 5,000 connections, which the client then keeps alive between waves
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientThreads)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/api/members/1"))
+                .GET()
+                .build();
+    }
+
+    /** One wave of 5,000 concurrent requests per operation; multiply the score by 5,000 for requests per second. */
+    @Benchmark
+    public int serveConcurrentRequests() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != CONCURRENT_REQUESTS) {
+            throw new IllegalStateException(ok + " of " + CONCURRENT_REQUESTS + " requests succeeded");
+        }
+        return ok;
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+        clientThreads.shutdownNow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(VirtualThreadHttpBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
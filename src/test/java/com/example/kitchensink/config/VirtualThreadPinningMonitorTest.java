@@ -0,0 +1,74 @@
+package com.example.kitchensink.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new VirtualThreadPinningMonitor(10, new SimpleMeterRegistry());
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+    }
+
+    @Test
+    void whenVirtualThreadBlocksInsideSynchronized_thenPinningCounted() throws InterruptedException {
+        // Arrange
+        Object monitorLock = new Object();
+
+        // Act
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitorLock) {
+                sleep(50);
+            }
+        }).join();
+
+        // Assert
+        // JFR streams flush about once a second
+        for (int i = 0; i < 100 && monitor.pinnedCount() == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(monitor.pinnedCount() > 0);
+    }
+
+    @Test
+    void whenVirtualThreadBlocksOnLock_thenNotPinned() throws InterruptedException {
+        // Arrange
+        ReentrantLock lock = new ReentrantLock();
+
+        // Act
+        Thread.ofVirtual().start(() -> {
+            lock.lock();
+            try {
+                sleep(50);
+            } finally {
+                lock.unlock();
+            }
+        }).join();
+        Thread.sleep(1500);
+
+        // Assert
+        assertEquals(0, monitor.pinnedCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
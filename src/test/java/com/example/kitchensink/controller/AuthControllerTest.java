@@ -3,13 +3,20 @@ package com.example.kitchensink.controller;
 import com.example.kitchensink.dto.LoginRequest;
 import com.example.kitchensink.dto.RegisterRequest;
 import com.example.kitchensink.dto.TokenRefreshRequest;
+import com.example.kitchensink.dto.TokenRefreshResponse;
+import com.example.kitchensink.exception.DuplicateResourceException;
+import com.example.kitchensink.exception.TokenRefreshException;
 import com.example.kitchensink.model.RefreshToken;
 import com.example.kitchensink.model.Role;
 import com.example.kitchensink.model.User;
-import com.example.kitchensink.repository.UserRepository;
 import com.example.kitchensink.security.JwtUtils;
+import com.example.kitchensink.security.TokenRevocationList;
 import com.example.kitchensink.security.UserDetailsImpl;
 import com.example.kitchensink.service.RefreshTokenService;
+import com.example.kitchensink.service.TokenGenerationService;
+import com.example.kitchensink.service.UserRegistrationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -19,8 +26,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -36,10 +43,7 @@ class AuthControllerTest {
     private AuthenticationManager authenticationManager;
 
     @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private PasswordEncoder passwordEncoder;
+    private UserRegistrationService userRegistrationService;
 
     @Mock
     private JwtUtils jwtUtils;
@@ -47,6 +51,12 @@ class AuthControllerTest {
     @Mock
     private RefreshTokenService refreshTokenService;
 
+    @Mock
+    private TokenGenerationService tokenGenerationService;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @Mock
     private Authentication authentication;
 
@@ -95,7 +105,7 @@ class AuthControllerTest {
             .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(UserDetailsImpl.build(testUser));
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("test-jwt-token");
-        when(refreshTokenService.createRefreshToken(any())).thenReturn(testRefreshToken);
+        when(refreshTokenService.createRefreshToken(any(), any())).thenReturn(testRefreshToken);
 
         // Act
         ResponseEntity<?> response = authController.authenticateUser(loginRequest);
@@ -109,30 +119,26 @@ class AuthControllerTest {
     @Test
     void whenValidRegistration_thenReturnsSuccess() {
         // Arrange
-        when(userRepository.existsByUsername(registerRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
-        when(passwordEncoder.encode(any())).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRegistrationService.register(registerRequest)).thenReturn(testUser);
 
         // Act
         ResponseEntity<?> response = authController.registerUser(registerRequest);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
-        verify(userRepository).save(any(User.class));
+        verify(userRegistrationService).register(registerRequest);
     }
 
     @Test
-    void whenDuplicateUsername_thenReturnsBadRequest() {
+    void whenDuplicateUsername_thenThrowsDuplicateResourceException() {
         // Arrange
-        when(userRepository.existsByUsername(registerRequest.getUsername())).thenReturn(true);
+        when(userRegistrationService.register(registerRequest))
+            .thenThrow(new DuplicateResourceException("Username is already taken!", "username"));
 
-        // Act
-        ResponseEntity<?> response = authController.registerUser(registerRequest);
-
-        // Assert
-        assertTrue(response.getStatusCode().is4xxClientError());
-        assertEquals("Error: Username is already taken!", response.getBody());
+        // Act & Assert
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+            () -> authController.registerUser(registerRequest));
+        assertEquals("username", exception.getField());
     }
 
     @Test
@@ -141,13 +147,15 @@ class AuthControllerTest {
         TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
         refreshRequest.setRefreshToken("valid-refresh-token");
 
-        when(refreshTokenService.findByToken(refreshRequest.getRefreshToken()))
-            .thenReturn(Optional.of(testRefreshToken));
+        when(refreshTokenService.findByTokenWithUser(refreshRequest.getRefreshToken()))
+            .thenReturn(Optional.of(new RefreshTokenService.TokenWithUser(testRefreshToken, testUser)));
         when(refreshTokenService.verifyExpiration(any(RefreshToken.class)))
             .thenReturn(testRefreshToken);
-        when(userRepository.findById(testRefreshToken.getUserId()))
-            .thenReturn(Optional.of(testUser));
-        when(jwtUtils.generateTokenFromUsername(testUser.getUsername()))
+        RefreshToken rotatedToken = new RefreshToken();
+        rotatedToken.setUserId(testUser.getId());
+        rotatedToken.setToken("rotated-refresh-token");
+        when(refreshTokenService.rotate(testRefreshToken)).thenReturn(Optional.of(rotatedToken));
+        when(jwtUtils.generateTokenFromUserDetails(any(UserDetailsImpl.class)))
             .thenReturn("new-access-token");
 
         // Act
@@ -156,6 +164,25 @@ class AuthControllerTest {
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
         verify(refreshTokenService).verifyExpiration(any(RefreshToken.class));
+        TokenRefreshResponse body = (TokenRefreshResponse) response.getBody();
+        assertEquals("rotated-refresh-token", body.getRefreshToken());
+    }
+
+    @Test
+    void whenRefreshTokenAlreadyRotated_thenThrowsTokenRefreshException() {
+        // Arrange
+        TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+        refreshRequest.setRefreshToken("valid-refresh-token");
+
+        when(refreshTokenService.findByTokenWithUser(refreshRequest.getRefreshToken()))
+            .thenReturn(Optional.of(new RefreshTokenService.TokenWithUser(testRefreshToken, testUser)));
+        when(refreshTokenService.verifyExpiration(any(RefreshToken.class)))
+            .thenReturn(testRefreshToken);
+        when(refreshTokenService.rotate(testRefreshToken)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(TokenRefreshException.class, () -> authController.refreshToken(refreshRequest));
+        verify(jwtUtils, never()).generateTokenFromUserDetails(any(UserDetailsImpl.class));
     }
 
     @Test
@@ -164,15 +191,58 @@ class AuthControllerTest {
         TokenRefreshRequest logoutRequest = new TokenRefreshRequest();
         logoutRequest.setRefreshToken("valid-refresh-token");
 
+        when(refreshTokenService.revokeSession(logoutRequest.getRefreshToken()))
+            .thenReturn(Optional.of(testRefreshToken));
+
+        // Act
+        ResponseEntity<?> response = authController.logoutUser(logoutRequest, null);
+
+        // Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        verify(refreshTokenService).revokeSession(logoutRequest.getRefreshToken());
+        verify(refreshTokenService, never()).deleteByUserId(any());
+        verify(tokenGenerationService).revokeAll(testRefreshToken.getUserId());
+    }
+
+    @Test
+    void whenLogoutWithAccessToken_thenOnlyThatTokenIsRevoked() {
+        // Arrange
+        TokenRefreshRequest logoutRequest = new TokenRefreshRequest();
+        logoutRequest.setRefreshToken("valid-refresh-token");
+        // JWT expiry is whole seconds, so the claims would truncate anything finer
+        Date expiration = new Date((System.currentTimeMillis() + 60000) / 1000 * 1000);
+        Claims claims = Jwts.claims().setId("access-token-id").setExpiration(expiration);
+
+        when(refreshTokenService.revokeSession(logoutRequest.getRefreshToken()))
+            .thenReturn(Optional.of(testRefreshToken));
+        when(jwtUtils.parseValidClaims("access-token")).thenReturn(Optional.of(claims));
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(UserDetailsImpl.build(testUser));
+
+        // Act
+        ResponseEntity<?> response = authController.logoutUser(logoutRequest, "Bearer access-token");
+
+        // Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        verify(tokenRevocationList).revoke("access-token-id", testUser.getId(), expiration);
+        verify(tokenGenerationService, never()).revokeAll(any());
+    }
+
+    @Test
+    void whenLogoutAllDevices_thenAllSessionsRevoked() {
+        // Arrange
+        TokenRefreshRequest logoutRequest = new TokenRefreshRequest();
+        logoutRequest.setRefreshToken("valid-refresh-token");
+
         when(refreshTokenService.findByToken(logoutRequest.getRefreshToken()))
             .thenReturn(Optional.of(testRefreshToken));
 
         // Act
-        ResponseEntity<?> response = authController.logoutUser(logoutRequest);
+        ResponseEntity<?> response = authController.logoutAllDevices(logoutRequest);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
         verify(refreshTokenService).deleteByUserId(testRefreshToken.getUserId());
+        verify(tokenGenerationService).revokeAll(testRefreshToken.getUserId());
     }
 
     @Test
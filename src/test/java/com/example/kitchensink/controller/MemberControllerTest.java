@@ -2,11 +2,24 @@ package com.example.kitchensink.controller;
 
 import com.example.kitchensink.dto.CreateMemberRequest;
 import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.dto.PatchMemberRequest;
 import com.example.kitchensink.dto.UpdateMemberRequest;
 import com.example.kitchensink.dto.response.ApiResponse;
 import com.example.kitchensink.dto.response.PagedResponse;
+import com.example.kitchensink.dto.response.SerializedApiResponse;
+import com.example.kitchensink.exception.DuplicateResourceException;
+import com.example.kitchensink.exception.ResourceNotFoundException;
+import com.example.kitchensink.exception.ServiceUnavailableException;
 import com.example.kitchensink.mapper.MemberMapper;
 import com.example.kitchensink.model.Member;
+import com.example.kitchensink.repository.MemberCursor;
+import com.example.kitchensink.service.MemberCache;
+import com.example.kitchensink.service.MemberChangeFeed;
+import com.example.kitchensink.service.MemberCounter;
+import com.example.kitchensink.service.MemberPageCache;
+import com.example.kitchensink.service.MemberService;
+import com.example.kitchensink.service.MemberWriteBehind;
+import com.example.kitchensink.service.MemberSearchIndex;
 import com.example.kitchensink.repository.MemberRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,16 +30,26 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +62,27 @@ class MemberControllerTest {
     @Mock
     private MemberMapper memberMapper;
 
+    @Mock
+    private MemberCounter memberCounter;
+
+    @Mock
+    private MemberSearchIndex memberSearchIndex;
+
+    @Mock
+    private MemberCache memberCache;
+
+    @Mock
+    private MemberPageCache memberPageCache;
+
+    @Mock
+    private MemberService memberService;
+
+    @Mock
+    private MemberWriteBehind memberWriteBehind;
+
+    @Mock
+    private MemberChangeFeed memberChangeFeed;
+
     @InjectMocks
     private MemberController memberController;
 
@@ -70,6 +114,10 @@ class MemberControllerTest {
         updateRequest.setName("Test User Updated");
         updateRequest.setEmail("test.updated@example.com");
         updateRequest.setPhoneNumber("0987654321");
+
+        lenient().when(memberPageCache.etag(anyString())).thenReturn("\"v1\"");
+        lenient().when(memberPageCache.put(anyString(), any()))
+                .thenAnswer(invocation -> new SerializedApiResponse<>(invocation.getArgument(1), "{}"));
     }
 
     @Test
@@ -78,11 +126,11 @@ class MemberControllerTest {
         // Arrange
         List<Member> members = Arrays.asList(testMember);
         Page<Member> memberPage = new PageImpl<>(members);
-        when(memberRepository.findAll(any(Pageable.class))).thenReturn(memberPage);
-        when(memberMapper.toDto(any(Member.class))).thenReturn(testMemberDto);
+        when(memberRepository.findPageWithTotal(any(Pageable.class), any())).thenReturn(memberPage);
+        when(memberMapper.toDto(any(Member.class), any())).thenReturn(testMemberDto);
 
         // Act
-        ResponseEntity<?> response = memberController.getAllMembers(0, 10, "name", "asc");
+        ResponseEntity<?> response = memberController.getAllMembers(0, 10, "name", "asc", null, null, null, null);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
@@ -118,38 +166,39 @@ class MemberControllerTest {
     @WithMockUser(roles = "ADMIN")
     void updateMember_Success() {
         // Arrange
-        when(memberRepository.findById("1")).thenReturn(Optional.of(testMember));
-        when(memberRepository.save(any(Member.class))).thenReturn(testMember);
+        testMember.setVersion(4L);
+        when(memberService.updateMember(eq("1"), any(Member.class), isNull())).thenReturn(Optional.of(testMember));
         when(memberMapper.toDto(any(Member.class))).thenReturn(testMemberDto);
 
         // Act
-        ResponseEntity<?> response = memberController.updateMember("1", updateRequest);
+        ResponseEntity<?> response = memberController.updateMember("1", updateRequest, null);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
-        verify(memberRepository).save(any(Member.class));
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        verify(memberService).updateMember(eq("1"), any(Member.class), isNull());
+        verify(memberRepository, never()).findById(any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void deleteMember_Success() {
         // Arrange
-        when(memberRepository.findById("1")).thenReturn(Optional.of(testMember));
-        doNothing().when(memberRepository).delete(any(Member.class));
+        when(memberService.deleteMember("1", null)).thenReturn(true);
 
         // Act
-        ResponseEntity<?> response = memberController.deleteMember("1");
+        ResponseEntity<?> response = memberController.deleteMember("1", null);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
-        verify(memberRepository).delete(any(Member.class));
+        verify(memberService).deleteMember("1", null);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getAllMembers_InvalidSortField() {
         // Act
-        ResponseEntity<?> response = memberController.getAllMembers(0, 10, "invalid_field", "asc");
+        ResponseEntity<?> response = memberController.getAllMembers(0, 10, "invalid_field", "asc", null, null, null, null);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
@@ -164,10 +213,10 @@ class MemberControllerTest {
     @WithMockUser(roles = "ADMIN")
     void updateMember_NotFound() {
         // Arrange
-        when(memberRepository.findById("999")).thenReturn(Optional.empty());
+        when(memberService.updateMember(eq("999"), any(Member.class), isNull())).thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<?> response = memberController.updateMember("999", updateRequest);
+        ResponseEntity<?> response = memberController.updateMember("999", updateRequest, null);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
@@ -210,7 +259,7 @@ class MemberControllerTest {
     void getAllMembers_WithoutAuthentication_ShouldFail() {
         // Act & Assert
         assertThrows(AuthenticationCredentialsNotFoundException.class, () -> {
-            memberController.getAllMembers(0, 10, "name", "asc");
+            memberController.getAllMembers(0, 10, "name", "asc", null, null, null, null);
         });
     }
 
@@ -220,11 +269,11 @@ class MemberControllerTest {
         // Arrange
         List<Member> members = Arrays.asList(testMember);
         Page<Member> memberPage = new PageImpl<>(members, PageRequest.of(0, 10), 1);
-        when(memberRepository.findAll(any(Pageable.class))).thenReturn(memberPage);
-        when(memberMapper.toDto(any(Member.class))).thenReturn(testMemberDto);
+        when(memberRepository.findPageWithTotal(any(Pageable.class), any())).thenReturn(memberPage);
+        when(memberMapper.toDto(any(Member.class), any())).thenReturn(testMemberDto);
 
         // Act
-        ResponseEntity<?> response = memberController.getAllMembers(0, 10, "name", "asc");
+        ResponseEntity<?> response = memberController.getAllMembers(0, 10, "name", "asc", null, null, null, null);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
@@ -236,4 +285,339 @@ class MemberControllerTest {
         assertEquals(1, pagedResponse.getTotalElements());
         assertEquals(1, pagedResponse.getTotalPages());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenCursorModeHasMoreRows_thenReturnsNextCursorWithoutCount() {
+        // Arrange
+        Member second = new Member();
+        second.setId("2");
+        second.setName("Zed");
+        when(memberRepository.findPageAfter(eq("name"), eq(Sort.Direction.ASC), isNull(), eq(2), isNull()))
+                .thenReturn(Arrays.asList(testMember, second));
+        when(memberMapper.toDto(any(Member.class), any())).thenReturn(testMemberDto);
+
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 1, "name", "asc", "", null, null, null);
+
+        // Assert
+        PagedResponse<MemberDto> page = response.getBody().getData();
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isLast());
+        assertEquals(-1, page.getTotalElements());
+        MemberCursor next = MemberCursor.decode(page.getNextCursor());
+        assertEquals(new MemberCursor("name", Sort.Direction.ASC, "Test User", "1"), next);
+        verify(memberRepository, never()).findPageWithTotal(any(Pageable.class), any());
+        verify(memberRepository, never()).count();
+    }
+
+    @Test
+    void whenCursorGiven_thenSeeksAfterIt() {
+        // Arrange
+        MemberCursor cursor = new MemberCursor("email", Sort.Direction.DESC, "m@example.com", "5");
+        when(memberRepository.findPageAfter("email", Sort.Direction.DESC, cursor, 11, null))
+                .thenReturn(List.of(testMember));
+        when(memberMapper.toDto(any(Member.class), any())).thenReturn(testMemberDto);
+
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 10, "email", "desc", cursor.encode(), null, null, null);
+
+        // Assert
+        PagedResponse<MemberDto> page = response.getBody().getData();
+        assertTrue(page.isLast());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void whenCursorMalformedOrForAnotherSort_thenBadRequest() {
+        // Act
+        ResponseEntity<?> malformed = memberController.getAllMembers(0, 10, "name", "asc", "not-a-cursor", null, null, null);
+        ResponseEntity<?> mismatched = memberController.getAllMembers(0, 10, "name", "asc",
+                new MemberCursor("email", Sort.Direction.ASC, "a", "1").encode(), null, null, null);
+
+        // Assert
+        assertEquals(400, malformed.getStatusCode().value());
+        assertEquals(400, mismatched.getStatusCode().value());
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void whenCountNone_thenNoTotalAndNoCountQuery() {
+        // Arrange
+        when(memberRepository.findSlice(any(Pageable.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testMember), PageRequest.of(0, 1), true));
+        when(memberMapper.toDto(any(Member.class), any())).thenReturn(testMemberDto);
+
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 1, "name", "asc", null, "none", null, null);
+
+        // Assert
+        PagedResponse<MemberDto> page = response.getBody().getData();
+        assertEquals("none", page.getCountStrategy());
+        assertEquals(-1, page.getTotalElements());
+        assertEquals(-1, page.getTotalPages());
+        assertFalse(page.isLast());
+        verify(memberRepository, never()).estimatedCount();
+        verify(memberRepository, never()).count();
+        verifyNoInteractions(memberCounter);
+    }
+
+    @Test
+    void whenCountCached_thenTotalComesFromCounter() {
+        // Arrange
+        when(memberRepository.findSlice(any(Pageable.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testMember), PageRequest.of(0, 1), true));
+        when(memberMapper.toDto(any(Member.class), any())).thenReturn(testMemberDto);
+        when(memberCounter.get()).thenReturn(42L);
+
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 1, "name", "asc", null, "cached", null, null);
+
+        // Assert
+        PagedResponse<MemberDto> page = response.getBody().getData();
+        assertEquals("cached", page.getCountStrategy());
+        assertEquals(42, page.getTotalElements());
+        assertEquals(42, page.getTotalPages());
+        verify(memberRepository, never()).count();
+    }
+
+    @Test
+    void whenEstimatedCountIsBehindTheLastPage_thenTotalFollowsThePage() {
+        // Arrange
+        when(memberRepository.findSlice(any(Pageable.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testMember, testMember), PageRequest.of(1, 10), false));
+        when(memberMapper.toDto(any(Member.class), any())).thenReturn(testMemberDto);
+        when(memberRepository.estimatedCount()).thenReturn(5L);
+
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(1, 10, "name", "asc", null, "estimated", null, null);
+
+        // Assert
+        PagedResponse<MemberDto> page = response.getBody().getData();
+        assertEquals("estimated", page.getCountStrategy());
+        assertEquals(12, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        assertTrue(page.isLast());
+    }
+
+    @Test
+    void whenFieldsRequested_thenRepositoryProjectsAndMapperCopiesOnlyThose() {
+        // Arrange
+        when(memberRepository.findSlice(any(Pageable.class), eq(Set.of("name"))))
+                .thenReturn(new SliceImpl<>(List.of(testMember), PageRequest.of(0, 10), false));
+        when(memberMapper.toDto(testMember, Set.of("name"))).thenReturn(testMemberDto);
+
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 10, "name", "asc", null, "none", "id,name", null);
+
+        // Assert
+        assertTrue(response.getBody().isSuccess());
+        assertEquals(1, response.getBody().getData().getContent().size());
+        verify(memberRepository).findSlice(any(Pageable.class), eq(Set.of("name")));
+    }
+
+    @Test
+    void whenMemberRequested_thenServedFromCacheWithEtag() {
+        // Arrange
+        when(memberCache.get("1")).thenReturn(Optional.of(new MemberCache.CachedMember(testMemberDto, "\"abc\"")));
+
+        // Act
+        ResponseEntity<ApiResponse<MemberDto>> response = memberController.getMember("1", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertEquals(testMemberDto, response.getBody().getData());
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void whenIfNoneMatchIsCurrent_thenNotModifiedWithoutBody() {
+        // Arrange
+        when(memberCache.get("1")).thenReturn(Optional.of(new MemberCache.CachedMember(testMemberDto, "\"abc\"")));
+
+        // Act
+        ResponseEntity<ApiResponse<MemberDto>> response = memberController.getMember("1", "\"old\", W/\"abc\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void whenIfNoneMatchIsStale_thenFullResponse() {
+        // Arrange
+        when(memberCache.get("1")).thenReturn(Optional.of(new MemberCache.CachedMember(testMemberDto, "\"abc\"")));
+
+        // Act
+        ResponseEntity<ApiResponse<MemberDto>> response = memberController.getMember("1", "\"old\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+    }
+
+    @Test
+    void whenMemberMissing_thenNotFound() {
+        // Arrange
+        when(memberCache.get("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> memberController.getMember("missing", null));
+    }
+
+    @Test
+    void whenListEtagIsCurrent_thenNotModifiedWithoutQuery() {
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 10, "name", "asc", null, null, null, "\"v1\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void whenListPageCached_thenServedWithoutQuery() {
+        // Arrange
+        SerializedApiResponse<PagedResponse<MemberDto>> cached =
+                new SerializedApiResponse<>(ApiResponse.success(new PagedResponse<>()), "{}");
+        when(memberPageCache.get("\"v1\"")).thenReturn(cached);
+
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 10, "name", "asc", null, null, null, "\"v0\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(cached, response.getBody());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void whenListPageRead_thenCachedUnderItsEtag() {
+        // Arrange
+        when(memberRepository.findSlice(any(Pageable.class), isNull()))
+                .thenReturn(new SliceImpl<>(List.of(testMember), PageRequest.of(0, 10), false));
+        when(memberMapper.toDto(testMember, null)).thenReturn(testMemberDto);
+
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 10, "name", "asc", null, "none", null, null);
+
+        // Assert
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertEquals(1, response.getBody().getData().getContent().size());
+        verify(memberPageCache).put(eq("\"v1\""), any());
+    }
+
+    @Test
+    void whenListRequestFails_thenNotCached() {
+        // Act
+        ResponseEntity<ApiResponse<PagedResponse<MemberDto>>> response =
+                memberController.getAllMembers(0, 10, "name", "asc", "not-a-cursor", null, null, null);
+
+        // Assert
+        assertFalse(response.getStatusCode().is2xxSuccessful());
+        verify(memberPageCache, never()).put(anyString(), any());
+    }
+
+    @Test
+    void whenPatchWithIfMatch_thenOnlyGivenFieldsSentAtThatVersion() {
+        // Arrange
+        PatchMemberRequest request = new PatchMemberRequest();
+        request.setEmail("new@example.com");
+        Member changes = new Member(null, null, "new@example.com", null);
+        when(memberMapper.toChanges(request)).thenReturn(changes);
+        testMember.setVersion(8L);
+        when(memberService.updateMember("1", changes, 7L)).thenReturn(Optional.of(testMember));
+        when(memberMapper.toDto(testMember)).thenReturn(testMemberDto);
+
+        // Act
+        ResponseEntity<ApiResponse<MemberDto>> response = memberController.patchMember("1", request, "\"7\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"8\"", response.getHeaders().getETag());
+        verify(memberService).updateMember("1", changes, 7L);
+    }
+
+    @Test
+    void whenPatchWithoutFields_thenBadRequest() {
+        // Act
+        ResponseEntity<ApiResponse<MemberDto>> response =
+                memberController.patchMember("1", new PatchMemberRequest(), null);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(memberService);
+    }
+
+    @Test
+    void whenIfMatchParsed_thenOnlyStrongVersionTagsAccepted() {
+        // Act & Assert
+        assertNull(MemberController.expectedVersion(null));
+        assertNull(MemberController.expectedVersion("*"));
+        assertEquals(12L, MemberController.expectedVersion(" \"12\" "));
+        assertThrows(OptimisticLockingFailureException.class, () -> MemberController.expectedVersion("W/\"12\""));
+        assertThrows(OptimisticLockingFailureException.class, () -> MemberController.expectedVersion("\"abc\""));
+    }
+
+    @Test
+    void whenCreateLosesEmailRace_thenDuplicateResource() {
+        // Arrange
+        when(memberMapper.toEntity(any(CreateMemberRequest.class))).thenReturn(testMember);
+        when(memberRepository.save(any(Member.class))).thenThrow(new DuplicateKeyException("E11000 email_unique"));
+
+        // Act & Assert
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+                () -> memberController.createMember(createRequest));
+        assertEquals("email", exception.getField());
+    }
+
+    @Test
+    void whenWriteBehindEnabled_thenCreateJoinsGroupInsert() {
+        // Arrange
+        when(memberMapper.toEntity(any(CreateMemberRequest.class))).thenReturn(testMember);
+        when(memberWriteBehind.isEnabled()).thenReturn(true);
+        when(memberWriteBehind.insert(testMember)).thenReturn(testMember);
+        when(memberMapper.toDto(testMember)).thenReturn(testMemberDto);
+
+        // Act
+        ResponseEntity<ApiResponse<MemberDto>> response = memberController.createMember(createRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(memberRepository, never()).save(any(Member.class));
+    }
+
+    @Test
+    void whenWriteBehindBufferFull_thenServiceUnavailable() {
+        // Arrange
+        when(memberMapper.toEntity(any(CreateMemberRequest.class))).thenReturn(testMember);
+        when(memberWriteBehind.isEnabled()).thenReturn(true);
+        when(memberWriteBehind.insert(testMember)).thenThrow(new ServiceUnavailableException("busy", 1));
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> memberController.createMember(createRequest));
+    }
+
+    @Test
+    void whenStreamResumed_thenLastEventIdPassedToFeed() {
+        // Arrange
+        SseEmitter emitter = new SseEmitter();
+        when(memberChangeFeed.subscribe("8264")).thenReturn(emitter);
+
+        // Act & Assert
+        assertSame(emitter, memberController.streamMembers("8264"));
+    }
+}
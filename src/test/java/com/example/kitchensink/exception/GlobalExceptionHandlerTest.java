@@ -3,10 +3,12 @@ package com.example.kitchensink.exception;
 import com.example.kitchensink.dto.response.ApiResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -16,6 +18,7 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.mockito.Mockito.mock;
@@ -51,6 +54,26 @@ class GlobalExceptionHandlerTest {
         assertTrue(response.getBody().getMessage().contains("error message"));
     }
 
+    @Test
+    void whenOnlyEmailTaken_thenConflictLikeUniqueIndex() {
+        // Arrange
+        MethodArgumentNotValidException ex = mock(MethodArgumentNotValidException.class);
+        BindingResult bindingResult = mock(BindingResult.class);
+        when(ex.getBindingResult()).thenReturn(bindingResult);
+        FieldError fieldError = new FieldError("createMemberRequest", "email", "taken@example.com", false,
+            new String[] {"UniqueEmail.createMemberRequest.email", "UniqueEmail"}, null,
+            "Email address is already in use");
+        when(bindingResult.getFieldErrors()).thenReturn(List.of(fieldError));
+
+        // Act
+        ResponseEntity<ApiResponse<?>> response = exceptionHandler.handleMethodArgumentNotValid(ex);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Email address is already in use", response.getBody().getMessage());
+        assertEquals(Map.of("field", "email"), response.getBody().getErrors());
+    }
+
     @Test
     void whenHandleConstraintViolation_thenReturnValidationErrors() {
         // Arrange
@@ -127,6 +150,30 @@ class GlobalExceptionHandlerTest {
         assertTrue(response.getBody().getMessage().contains("Resource already exists"));
     }
 
+    @Test
+    void whenHandleDuplicateResourceWithField_thenFieldIdentified() {
+        // Arrange
+        DuplicateResourceException ex = new DuplicateResourceException("Email is already in use!", "email");
+
+        // Act
+        ResponseEntity<ApiResponse<?>> response = exceptionHandler.handleDuplicateResource(ex);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(Map.of("field", "email"), response.getBody().getErrors());
+    }
+
+    @Test
+    void whenDuplicateKeyMessage_thenFieldResolved() {
+        // Arrange
+        String message = "E11000 duplicate key error collection: KitchenSink_DB.users index: email_1 "
+            + "dup key: { email: \"taken@example.com\" }";
+
+        // Act & Assert
+        assertEquals("email", DuplicateResourceException.duplicateField(message, "username", "email"));
+        assertNull(DuplicateResourceException.duplicateField("some other error", "username", "email"));
+    }
+
     @Test
     void whenHandleUnexpectedException_thenReturnInternalError() {
         // Arrange
@@ -180,4 +227,32 @@ class GlobalExceptionHandlerTest {
         assertTrue(message.contains("field2"));
         assertTrue(message.contains("error2"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenHandleServiceUnavailable_thenReturns503WithRetryAfter() {
+        // Arrange
+        ServiceUnavailableException ex = new ServiceUnavailableException("Busy", 2);
+
+        // Act
+        ResponseEntity<ApiResponse<?>> response = exceptionHandler.handleServiceUnavailable(ex);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Busy", response.getBody().getMessage());
+    }
+
+    @Test
+    void whenAuthenticationFailsBecauseServiceBusy_thenReturns503() {
+        // Arrange
+        AuthenticationException ex = new InternalAuthenticationServiceException("Busy",
+            new ServiceUnavailableException("Busy", 1));
+
+        // Act
+        ResponseEntity<ApiResponse<?>> response = exceptionHandler.handleAuthenticationException(ex);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
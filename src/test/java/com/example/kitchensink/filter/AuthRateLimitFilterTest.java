@@ -0,0 +1,134 @@
+package com.example.kitchensink.filter;
+
+import com.example.kitchensink.security.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthRateLimitFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private AuthRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new AuthRateLimitFilter(
+            new TokenBucketRateLimiter(3, 0.001, Duration.ofMinutes(10), 1000),
+            new TokenBucketRateLimiter(1, 0.001, Duration.ofMinutes(10), 1000),
+            registry);
+    }
+
+    @Test
+    void whenLoginWithinLimit_thenBodyStillReachesController() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = login("10.0.0.1", "alice");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        String body = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"username\":\"alice\""));
+    }
+
+    @Test
+    void whenSameUsernameRepeated_thenRejectedWith429() throws Exception {
+        // Arrange
+        filter.doFilter(login("10.0.0.1", "Alice"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(login("10.0.0.2", " alice "), response, chain);
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertNotNull(response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+        assertEquals(1.0, registry.get("auth.ratelimit.rejected").tag("key", "username").counter().count());
+    }
+
+    @Test
+    void whenSameIpExceedsLimit_thenRejectedWith429() throws Exception {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(login("10.0.0.1", "user" + i), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(login("10.0.0.1", "another"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertEquals(1.0, registry.get("auth.ratelimit.rejected").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void whenNotAnAuthEndpoint_thenNotLimited() throws Exception {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/members");
+            request.setServletPath("/api/members");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // Act
+            filter.doFilter(request, response, new MockFilterChain());
+
+            // Assert
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    @Test
+    void whenLoginBodyOverCap_thenRejectedWith413() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = login("10.0.0.1", "alice");
+        request.setContent(("{\"padding\":\"" + "x".repeat(5000) + "\",\"username\":\"alice\"}")
+            .getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void whenLoginByEmailAfterUsername_thenSeparateBucket() throws Exception {
+        // Arrange
+        filter.doFilter(login("10.0.0.1", "alice"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(login("10.0.0.2", "alice@example.com"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, response.getStatus());
+    }
+
+    private static MockHttpServletRequest login(String ip, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(("{\"username\":\"" + username + "\",\"password\":\"secret1\"}")
+            .getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
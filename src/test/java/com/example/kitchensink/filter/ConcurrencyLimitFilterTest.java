@@ -0,0 +1,68 @@
+package com.example.kitchensink.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new ConcurrencyLimitFilter(1, 2, registry);
+    }
+
+    @Test
+    void whenLimitReached_thenRequestShedWith503() throws Exception {
+        // Arrange
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        MockFilterChain shedChain = new MockFilterChain();
+        MockFilterChain holdingChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                try {
+                    // Act
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/members"), shed, shedChain);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/members"), new MockHttpServletResponse(), holdingChain);
+
+        // Assert
+        assertEquals(503, shed.getStatus());
+        assertEquals("2", shed.getHeader("Retry-After"));
+        assertNull(shedChain.getRequest());
+        assertEquals(1.0, registry.get("http.server.requests.shed").counter().count());
+    }
+
+    @Test
+    void whenRequestCompletes_thenPermitReleased() throws Exception {
+        // Arrange
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/members"), new MockHttpServletResponse(),
+            new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/members"), response, chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(0.0, registry.get("http.server.requests.inflight").gauge().value());
+    }
+}
@@ -134,7 +134,7 @@ class AuthenticationFlowIntegrationTest {
             Map.class
         );
 
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
         assertTrue(Objects.requireNonNull(response.getBody())
             .get("message").toString().contains("Username is already taken"));
     }
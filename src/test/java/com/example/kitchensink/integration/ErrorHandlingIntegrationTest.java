@@ -95,7 +95,7 @@ class ErrorHandlingIntegrationTest {
             Map.class
         );
 
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
         assertTrue(response.getBody().get("message").toString().contains("already"));
     }
 
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -158,4 +160,16 @@ class MemberMapperTest {
         assertEquals("john@example.com", result.getEmail());
         assertEquals("+1-555-0126", result.getPhoneNumber());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenMapEntityToDtoWithFields_thenOnlyIdAndRequestedFieldsMapped() {
+        // Act
+        MemberDto result = memberMapper.toDto(testMember, Set.of("name"));
+
+        // Assert
+        assertEquals(testMember.getId(), result.getId());
+        assertEquals(testMember.getName(), result.getName());
+        assertNull(result.getEmail());
+        assertNull(result.getPhoneNumber());
+    }
+}
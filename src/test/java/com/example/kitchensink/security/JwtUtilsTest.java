@@ -1,5 +1,7 @@
 package com.example.kitchensink.security;
 
+import com.example.kitchensink.model.Role;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,9 +10,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.*;
@@ -153,4 +158,109 @@ class JwtUtilsTest {
             jwtUtils.getUserNameFromJwtToken("malformed.token.here");
         });
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenParseClaims_thenReturnsSubject() {
+        // Arrange
+        String token = jwtUtils.generateTokenFromUsername(userDetails.getUsername());
+
+        // Act
+        Claims claims = jwtUtils.parseClaims(token);
+
+        // Assert
+        assertEquals(userDetails.getUsername(), claims.getSubject());
+        assertNotNull(claims.getExpiration());
+    }
+
+    @Test
+    void whenCachedClaimsModified_thenLaterCallersUnaffected() {
+        // Arrange
+        String token = jwtUtils.generateTokenFromUsername(userDetails.getUsername());
+        jwtUtils.parseClaims(token);
+
+        // Act
+        Claims first = jwtUtils.parseClaims(token);
+        first.setSubject("someone-else");
+        Claims second = jwtUtils.parseClaims(token);
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(userDetails.getUsername(), second.getSubject());
+    }
+
+    @Test
+    void whenVerifiedCacheDisabled_thenTokenIsVerifiedEachTime() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtUtils, "jwtVerifiedCacheSize", 0);
+        String token = jwtUtils.generateTokenFromUsername(userDetails.getUsername());
+
+        // Act
+        Claims first = jwtUtils.parseClaims(token);
+        Claims second = jwtUtils.parseClaims(token);
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(first.getSubject(), second.getSubject());
+    }
+
+    @Test
+    void whenSecretChangesAfterVerification_thenCachedTokenIsRejected() {
+        // Arrange
+        String token = jwtUtils.generateTokenFromUsername(userDetails.getUsername());
+        assertTrue(jwtUtils.validateJwtToken(token));
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", TEST_JWT_SECRET + "-rotated");
+
+        // Act & Assert
+        assertFalse(jwtUtils.validateJwtToken(token));
+    }
+
+    @Test
+    void whenTokenHasInvalidCharacters_thenRejectedBeforeParsing() {
+        // Act & Assert
+        assertFalse(JwtUtils.isWellFormed("abc.def.g h"));
+        assertFalse(JwtUtils.isWellFormed("abc..ghi"));
+        assertFalse(JwtUtils.isWellFormed("abc.def.ghi.jkl"));
+        assertTrue(JwtUtils.isWellFormed("abc.def.ghi"));
+        assertThrows(MalformedJwtException.class, () -> jwtUtils.parseClaims("abc.def"));
+    }
+
+    @Test
+    void whenTokenGeneratedFromUserDetails_thenPrincipalRebuiltFromClaims() {
+        // Arrange
+        UserDetailsImpl admin = new UserDetailsImpl("42", "admin", "admin@example.com", "password",
+            List.of(new SimpleGrantedAuthority(Role.ROLE_USER.name()),
+                    new SimpleGrantedAuthority(Role.ROLE_ADMIN.name())), 3L);
+        String token = jwtUtils.generateTokenFromUserDetails(admin);
+
+        // Act
+        UserDetailsImpl principal = jwtUtils.getUserDetailsFromClaims(jwtUtils.parseClaims(token));
+
+        // Assert
+        assertNotNull(principal);
+        assertEquals("42", principal.getId());
+        assertEquals("admin", principal.getUsername());
+        assertEquals(3L, principal.getTokenGeneration());
+        assertEquals(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN), principal.getRoles());
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    void whenTokenHasNoPrincipalClaims_thenNoPrincipalFromClaims() {
+        // Arrange
+        String token = jwtUtils.generateTokenFromUsername(userDetails.getUsername());
+
+        // Act & Assert
+        assertNull(jwtUtils.getUserDetailsFromClaims(jwtUtils.parseClaims(token)));
+    }
+
+    @Test
+    void whenTokensGenerated_thenEachHasUniqueId() {
+        // Act
+        Claims first = jwtUtils.parseClaims(jwtUtils.generateTokenFromUsername(userDetails.getUsername()));
+        Claims second = jwtUtils.parseClaims(jwtUtils.generateTokenFromUsername(userDetails.getUsername()));
+
+        // Assert
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+    }
+}
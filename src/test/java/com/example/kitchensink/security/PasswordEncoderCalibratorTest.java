@@ -0,0 +1,32 @@
+package com.example.kitchensink.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderCalibratorTest {
+
+    @Test
+    void whenTargetBelowMinimumCost_thenMinimumStrengthKept() {
+        // Act
+        int strength = PasswordEncoderCalibrator.calibrateBcryptStrength(0, 4, 8);
+
+        // Assert
+        assertEquals(4, strength);
+    }
+
+    @Test
+    void whenTargetVeryHigh_thenCappedAtMaximumStrength() {
+        // Act
+        int strength = PasswordEncoderCalibrator.calibrateBcryptStrength(Long.MAX_VALUE, 4, 6);
+
+        // Assert
+        assertEquals(6, strength);
+    }
+
+    @Test
+    void whenMeasured_thenHashTimeIsPositive() {
+        // Act & Assert
+        assertTrue(PasswordEncoderCalibrator.measureBcryptMillis(4) > 0);
+    }
+}
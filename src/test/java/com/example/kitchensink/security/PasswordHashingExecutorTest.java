@@ -0,0 +1,83 @@
+package com.example.kitchensink.security;
+
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry registry;
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(1, 1, 3, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void whenTaskExecuted_thenResultReturnedAndTimed() {
+        // Act
+        String result = executor.execute("encode", () -> "hashed");
+
+        // Assert
+        assertEquals("hashed", result);
+        assertEquals(1, registry.get("auth.password.hash.time").tag("operation", "encode").timer().count());
+        assertEquals(1, registry.get("auth.password.queue.wait").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void whenQueueFull_thenRejectedWithRetryAfter() throws Exception {
+        // Arrange: occupy the single worker and the single queue slot
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> executor.execute("matches", () -> {
+            running.countDown();
+            await(release);
+            return true;
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.execute("matches", () -> true));
+        while (registry.get("auth.password.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+            () -> executor.execute("matches", () -> true));
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(1, registry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void whenTaskThrows_thenExceptionPropagated() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> executor.execute("encode", () -> { throw new IllegalArgumentException("bad"); }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.kitchensink.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void whenBurstExceedsCapacity_thenExcessRejectedWithWaitTime() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1, Duration.ofMinutes(10), 1000);
+
+        // Act & Assert
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 0));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 0));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 0));
+        long wait = limiter.tryAcquire("10.0.0.1", 0);
+        assertTrue(wait > 0 && wait <= SECOND, "wait: " + wait);
+    }
+
+    @Test
+    void whenTimePasses_thenTokensRefill() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, Duration.ofMinutes(10), 1000);
+        limiter.tryAcquire("user", 0);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("user", SECOND / 2) > 0);
+        assertEquals(0, limiter.tryAcquire("user", SECOND + SECOND / 2));
+    }
+
+    @Test
+    void whenDifferentKeys_thenBucketsAreIndependent() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, Duration.ofMinutes(10), 1000);
+        limiter.tryAcquire("alice", 0);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("alice", 0) > 0);
+        assertEquals(0, limiter.tryAcquire("bob", 0));
+    }
+
+    @Test
+    void whenKeysIdle_thenEvicted() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, Duration.ofSeconds(5), 1000, 1);
+        limiter.tryAcquire("idle-1", 0);
+        limiter.tryAcquire("idle-2", 0);
+
+        // Act
+        limiter.tryAcquire("active", 10 * SECOND);
+
+        // Assert
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void whenMaxKeysExceeded_thenLeastRecentlyUsedDropped() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, Duration.ofMinutes(10), 100, 4);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("key-" + i, i);
+        }
+
+        // Assert
+        assertTrue(limiter.size() <= 100, "size: " + limiter.size());
+    }
+
+    @Test
+    void whenStripeFullOfDrainedBuckets_thenNewKeyStillAdmitted() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, Duration.ofMinutes(10), 10, 1);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("sprayed-" + i, 0);
+        }
+
+        // Act & Assert
+        assertEquals(0, limiter.tryAcquire("newcomer", 1));
+        assertEquals(10, limiter.size());
+    }
+
+    @Test
+    void whenStripeFull_thenRefilledBucketEvictedBeforeDrainedOne() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, Duration.ofMinutes(10), 2, 1);
+        limiter.tryAcquire("drained", 0);
+        limiter.tryAcquire("drained", 0);
+        limiter.tryAcquire("refilled", 0);
+
+        // Act
+        assertEquals(0, limiter.tryAcquire("c", SECOND));
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("drained", SECOND));
+        assertTrue(limiter.tryAcquire("drained", SECOND) > 0);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.kitchensink.security;
+
+import com.example.kitchensink.model.RevokedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTest {
+
+    private MongoTemplate mongoTemplate;
+    private TokenRevocationList revocationList;
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        revocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(revocationList, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 16);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(revocationList, "meterRegistry", meterRegistry);
+        scheduler = mock(ScheduledExecutorService.class);
+        ReflectionTestUtils.setField(revocationList, "scheduler", scheduler);
+    }
+
+    @Test
+    void whenConnecting_thenInitialLoadRunsOnceChangeStreamIsOpen() throws Exception {
+        // Arrange
+        Subscription subscription = subscription(true);
+
+        // Act
+        revocationList.connect();
+
+        // Assert
+        InOrder inOrder = inOrder(subscription, mongoTemplate);
+        inOrder.verify(subscription).await(any(Duration.class));
+        inOrder.verify(mongoTemplate).find(any(Query.class), eq(RevokedToken.class));
+        assertEquals(true, ReflectionTestUtils.getField(revocationList, "changeStreamActive"));
+    }
+
+    @Test
+    void whenChangeStreamDoesNotOpen_thenPollingKeptOnAndInitialLoadStillRuns() throws Exception {
+        // Arrange
+        Subscription subscription = subscription(false);
+
+        // Act
+        revocationList.connect();
+
+        // Assert
+        verify(subscription).cancel();
+        verify(mongoTemplate).find(any(Query.class), eq(RevokedToken.class));
+        assertEquals(false, ReflectionTestUtils.getField(revocationList, "changeStreamActive"));
+        assertEquals(1.0, meterRegistry.get("auth.revocation.stream.failures").tag("action", "poll")
+                .counter().count());
+    }
+
+    @Test
+    void whenChangeStreamFailsAfterEvents_thenResumedFromLastToken() {
+        // Arrange
+        ReflectionTestUtils.setField(revocationList, "changeStreamActive", true);
+        ReflectionTestUtils.setField(revocationList, "resumeToken", new BsonDocument("_data", new BsonString("8264")));
+
+        // Act
+        revocationList.onChangeStreamError(new IllegalStateException("cursor killed"));
+
+        // Assert
+        assertEquals(false, ReflectionTestUtils.getField(revocationList, "changeStreamActive"));
+        verify(scheduler).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+        assertEquals(1.0, meterRegistry.get("auth.revocation.stream.failures").tag("action", "resume")
+                .counter().count());
+    }
+
+    @Test
+    void whenChangeStreamFailsWithoutToken_thenPollingFallbackRecorded() {
+        // Act
+        revocationList.onChangeStreamError(new IllegalStateException("not a replica set"));
+
+        // Assert
+        verifyNoInteractions(scheduler);
+        assertEquals(1.0, meterRegistry.get("auth.revocation.stream.failures").tag("action", "poll")
+                .counter().count());
+    }
+
+    @Test
+    void whenTokenRevoked_thenReportedAsRevokedAndPersisted() {
+        // Arrange
+        Date expiresAt = new Date(System.currentTimeMillis() + 60000);
+
+        // Act
+        revocationList.revoke("jti-1", "user-1", expiresAt);
+
+        // Assert
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(mongoTemplate).save(saved.capture());
+        assertEquals("jti-1", saved.getValue().getId());
+        assertEquals(expiresAt.toInstant(), saved.getValue().getExpiresAt());
+    }
+
+    @Test
+    void whenNoIdPresent_thenNotRevoked() {
+        // Act & Assert
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    @Test
+    void whenAlreadyExpired_thenNotRecorded() {
+        // Act
+        revocationList.markRevoked("jti-1", System.currentTimeMillis() - 1000);
+
+        // Assert
+        assertFalse(revocationList.isRevoked("jti-1"));
+        assertEquals(0, revocationList.size());
+    }
+
+    @Test
+    void whenPruned_thenExpiredEntriesDroppedAndOthersKept() {
+        // Arrange
+        revocationList.markRevoked("expiring", System.currentTimeMillis() + 50);
+        revocationList.markRevoked("live", System.currentTimeMillis() + 60000);
+        sleep(100);
+
+        // Act
+        revocationList.prune();
+
+        // Assert
+        assertEquals(1, revocationList.size());
+        assertFalse(revocationList.isRevoked("expiring"));
+        assertTrue(revocationList.isRevoked("live"));
+    }
+
+    @Test
+    void whenMoreEntriesThanExpected_thenFilterGrowsAndKeepsAllEntries() {
+        // Arrange
+        long expiresAt = System.currentTimeMillis() + 60000;
+        for (int i = 0; i < 1000; i++) {
+            revocationList.markRevoked("jti-" + i, expiresAt);
+        }
+
+        // Act
+        revocationList.prune();
+
+        // Assert
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(revocationList.isRevoked("jti-" + i));
+        }
+        assertFalse(revocationList.isRevoked("not-revoked"));
+    }
+
+    @Test
+    void whenBloomFilterSized_thenFalsePositiveRateNearTarget() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put(SecureTokenGenerator.nextId());
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(SecureTokenGenerator.nextId())) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Subscription subscription(boolean opens) throws InterruptedException {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        Subscription subscription = mock(Subscription.class);
+        when(subscription.await(any(Duration.class))).thenReturn(opens);
+        when(subscription.isActive()).thenReturn(opens);
+        when(container.register(any(), any(Class.class), any())).thenReturn(subscription);
+        when(mongoTemplate.getCollectionName(RevokedToken.class)).thenReturn("revoked_tokens");
+        ReflectionTestUtils.setField(revocationList, "changeStreamContainer", container);
+        return subscription;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -11,13 +11,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -146,4 +148,92 @@ class UserDetailsServiceImplTest {
         assertTrue(userDetails.isCredentialsNonExpired());
         assertTrue(userDetails.isEnabled());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenLoadedTwice_thenSecondLoadServedFromCache() {
+        // Arrange
+        when(userRepository.findByUsername(testUser.getUsername()))
+            .thenReturn(Optional.of(testUser));
+
+        // Act
+        UserDetails first = userDetailsService.loadUserByUsername(testUser.getUsername());
+        UserDetails second = userDetailsService.loadUserByUsername(testUser.getUsername());
+        UserDetails byEmail = userDetailsService.loadUserByUsername(testUser.getEmail());
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first, byEmail);
+        verify(userRepository, times(1)).findByUsername(testUser.getUsername());
+        verify(userRepository, never()).findByEmail(testUser.getEmail());
+        assertEquals(2, userDetailsService.getCache().stats().hitCount());
+    }
+
+    @Test
+    void whenUserEvicted_thenReloadedFromRepository() {
+        // Arrange
+        when(userRepository.findByUsername(testUser.getUsername()))
+            .thenReturn(Optional.of(testUser));
+        userDetailsService.loadUserByUsername(testUser.getUsername());
+
+        // Act
+        userDetailsService.evict(testUser);
+        userDetailsService.loadUserByUsername(testUser.getUsername());
+
+        // Assert
+        verify(userRepository, times(2)).findByUsername(testUser.getUsername());
+    }
+
+    @Test
+    void whenEvictedDuringLoad_thenLoadedDetailsNotCached() {
+        // Arrange
+        when(userRepository.findByUsername(testUser.getUsername())).thenAnswer(invocation -> {
+            userDetailsService.evict(testUser);
+            return Optional.of(testUser);
+        });
+
+        // Act
+        userDetailsService.loadUserByUsername(testUser.getUsername());
+
+        // Assert
+        assertNull(userDetailsService.getCache().getIfPresent(testUser.getUsername()));
+        assertNull(userDetailsService.getCache().getIfPresent(testUser.getEmail()));
+    }
+
+    @Test
+    void whenEvictedById_thenEveryKeyOfThatUserDropped() {
+        // Arrange
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(userRepository.findByUsername(testUser.getUsername())).thenReturn(Optional.of(testUser));
+        userDetailsService.loadUserByUsername(testUser.getEmail());
+        User otherUser = new User("otheruser", "other@example.com", "password");
+        otherUser.setId("2");
+        otherUser.setRoles(new HashSet<>(testUser.getRoles()));
+        when(userRepository.findByUsername("otheruser")).thenReturn(Optional.of(otherUser));
+        userDetailsService.loadUserByUsername("otheruser");
+
+        // Act
+        userDetailsService.evictById(testUser.getId());
+
+        // Assert
+        assertNull(userDetailsService.getCache().getIfPresent(testUser.getUsername()));
+        assertNull(userDetailsService.getCache().getIfPresent(testUser.getEmail()));
+        assertNotNull(userDetailsService.getCache().getIfPresent("otheruser"));
+        assertEquals(Set.of("2"), ((Map<?, ?>) ReflectionTestUtils.getField(userDetailsService, "keysById")).keySet());
+    }
+
+    @Test
+    void whenUsersShareRoles_thenAuthoritiesAreShared() {
+        // Arrange
+        User otherUser = new User("otheruser", "other@example.com", "password");
+        otherUser.setId("2");
+        otherUser.setRoles(new HashSet<>(testUser.getRoles()));
+
+        // Act
+        UserDetailsImpl first = UserDetailsImpl.build(testUser);
+        UserDetailsImpl second = UserDetailsImpl.build(otherUser);
+
+        // Assert
+        assertSame(first.getAuthorities(), second.getAuthorities());
+        assertThrows(UnsupportedOperationException.class, () -> first.getAuthorities().clear());
+    }
+}
@@ -63,6 +63,7 @@ class DataMigrationServiceTest {
         // Assert
         verify(userRepository).save(any(User.class));
         assertTrue(userWithoutAdminRole.getRoles().contains(Role.ROLE_ADMIN));
+        assertEquals(1, userWithoutAdminRole.getTokenGeneration());
     }
 
     @Test
@@ -0,0 +1,218 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.MemberBatchRequest;
+import com.example.kitchensink.dto.MemberBatchResponse;
+import com.example.kitchensink.dto.MemberChangeEvent;
+import com.example.kitchensink.dto.MemberBatchResponse.Status;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class MemberBatchServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private MemberCounter memberCounter;
+
+    @Mock
+    private MemberSearchIndex memberSearchIndex;
+
+    @Mock
+    private MemberCollectionVersion collectionVersion;
+
+    @Mock
+    private MemberEmailFilter memberEmailFilter;
+
+    @Mock
+    private MemberChangeFeed memberChangeFeed;
+
+    @Mock
+    private MemberCache memberCache;
+
+    @Spy
+    private MemberMapper memberMapper = new MemberMapper();
+
+    @InjectMocks
+    private MemberBatchService memberBatchService;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Member.class)).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void whenMixedOperations_thenOneBulkWriteAndNoLookups() {
+        // Arrange
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 1, 1, 1, List.of(), List.of()));
+        List<MemberBatchRequest.Operation> operations = List.of(
+                operation("create", null, "Ann Lee", "ann@example.com"),
+                operation("update", "64b000000000000000000001", "Bo Li", "bo@example.com"),
+                operation("delete", "64b000000000000000000002", null, null));
+
+        // Act
+        MemberBatchResponse response = memberBatchService.execute(operations);
+
+        // Assert
+        assertEquals(List.of(Status.CREATED, Status.UPDATED, Status.DELETED),
+                response.getResults().stream().map(MemberBatchResponse.Result::getStatus).toList());
+        assertNotNull(response.getResults().get(0).getId());
+        assertEquals(0, response.getFailed());
+        verify(bulkOperations).insert(any(Member.class));
+        verify(bulkOperations).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).remove(any(Query.class));
+        verify(bulkOperations, times(1)).execute();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Member.class));
+        verify(memberCounter).invalidate();
+        verify(memberSearchIndex).put(argThat(member -> member.getName().equals("Bo Li")));
+        verify(memberSearchIndex).remove("64b000000000000000000002");
+        verify(memberCache).evict("64b000000000000000000001");
+        verify(collectionVersion).bump();
+        verify(memberEmailFilter).put("bo@example.com");
+        verify(memberCache).evict("64b000000000000000000002");
+        verify(memberChangeFeed).publishLocal(MemberChangeEvent.DELETED, "64b000000000000000000002", null);
+        verify(memberChangeFeed, never()).publishLocal(eq(MemberChangeEvent.CREATED), any(), any());
+    }
+
+    @Test
+    void whenOperationInvalid_thenReportedWithoutBeingSent() {
+        // Arrange
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 1, 0, List.of(), List.of()));
+        List<MemberBatchRequest.Operation> operations = List.of(
+                operation("create", null, "Ann Lee", "not-an-email"),
+                operation("update", null, "Bo Li", "bo@example.com"),
+                operation("delete", "64b000000000000000000002", null, null));
+
+        // Act
+        MemberBatchResponse response = memberBatchService.execute(operations);
+
+        // Assert
+        assertEquals(Status.INVALID, response.getResults().get(0).getStatus());
+        assertEquals("email", response.getResults().get(0).getField());
+        assertEquals(Status.INVALID, response.getResults().get(1).getStatus());
+        assertEquals("id", response.getResults().get(1).getField());
+        assertEquals(Status.DELETED, response.getResults().get(2).getStatus());
+        assertEquals(2, response.getFailed());
+        verify(bulkOperations, never()).insert(any(Member.class));
+    }
+
+    @Test
+    void whenFewerUpdatesMatched_thenMissingIdsReportedNotFound() {
+        // Arrange
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        Member existing = new Member("64b000000000000000000001", null, null, null);
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(existing));
+        List<MemberBatchRequest.Operation> operations = List.of(
+                operation("update", "64b000000000000000000001", "Bo Li", "bo@example.com"),
+                operation("update", "64b000000000000000000009", "Cy Ng", "cy@example.com"));
+
+        // Act
+        MemberBatchResponse response = memberBatchService.execute(operations);
+
+        // Assert
+        assertEquals(Status.UPDATED, response.getResults().get(0).getStatus());
+        assertEquals(Status.NOT_FOUND, response.getResults().get(1).getStatus());
+        assertEquals(1, response.getUpdated());
+        verify(memberCounter, never()).invalidate();
+    }
+
+    @Test
+    void whenNoUpdateMatched_thenAllNotFoundWithoutLookup() {
+        // Arrange
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+        List<MemberBatchRequest.Operation> operations = List.of(
+                operation("update", "64b000000000000000000008", "Bo Li", "bo@example.com"),
+                operation("update", "64b000000000000000000009", "Cy Ng", "cy@example.com"));
+
+        // Act
+        MemberBatchResponse response = memberBatchService.execute(operations);
+
+        // Assert
+        assertEquals(Status.NOT_FOUND, response.getResults().get(0).getStatus());
+        assertEquals(Status.NOT_FOUND, response.getResults().get(1).getStatus());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Member.class));
+    }
+
+    @Test
+    void whenIdRepeated_thenLaterOperationInvalid() {
+        // Arrange
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        List<MemberBatchRequest.Operation> operations = List.of(
+                operation("update", "64b000000000000000000001", "Bo Li", "bo@example.com"),
+                operation("delete", "64b000000000000000000001", null, null));
+
+        // Act
+        MemberBatchResponse response = memberBatchService.execute(operations);
+
+        // Assert
+        assertEquals(Status.UPDATED, response.getResults().get(0).getStatus());
+        assertEquals(Status.INVALID, response.getResults().get(1).getStatus());
+        assertEquals("id", response.getResults().get(1).getField());
+        verify(bulkOperations, never()).remove(any(Query.class));
+    }
+
+    @Test
+    void whenDuplicateKeyOnCreate_thenConflictForThatOperationOnly() {
+        // Arrange
+        BulkWriteError duplicate = new BulkWriteError(11000,
+                "E11000 duplicate key error collection: kitchensink.members index: email dup key: { email: \"ann@example.com\" }",
+                new BsonDocument(), 0);
+        BulkWriteResult partial = BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of());
+        MongoBulkWriteException cause = new MongoBulkWriteException(partial, List.of(duplicate), null,
+                new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("Bulk write failed", cause));
+        List<MemberBatchRequest.Operation> operations = List.of(
+                operation("create", null, "Ann Lee", "ann@example.com"),
+                operation("create", null, "Bo Li", "bo@example.com"));
+
+        // Act
+        MemberBatchResponse response = memberBatchService.execute(operations);
+
+        // Assert
+        assertEquals(Status.CONFLICT, response.getResults().get(0).getStatus());
+        assertEquals("email", response.getResults().get(0).getField());
+        assertEquals(Status.CREATED, response.getResults().get(1).getStatus());
+        assertEquals(1, response.getCreated());
+        verify(memberChangeFeed).publishLocal(eq(MemberChangeEvent.CREATED), eq(response.getResults().get(1).getId()),
+                argThat(member -> member.getName().equals("Bo Li")));
+        verify(memberChangeFeed, times(1)).publishLocal(eq(MemberChangeEvent.CREATED), any(), any());
+    }
+
+    private static MemberBatchRequest.Operation operation(String op, String id, String name, String email) {
+        MemberBatchRequest.Operation operation = new MemberBatchRequest.Operation();
+        operation.setOp(op);
+        operation.setId(id);
+        operation.setName(name);
+        operation.setEmail(email);
+        operation.setPhoneNumber(name != null ? "12345678901" : null);
+        return operation;
+    }
+}
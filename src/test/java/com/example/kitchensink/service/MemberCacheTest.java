@@ -0,0 +1,84 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.example.kitchensink.repository.MemberRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MemberCacheTest {
+
+    private MemberRepository memberRepository;
+    private MemberCache memberCache;
+    private final Member member = new Member("1", "Ann Lee", "ann@example.com", "+15550001111");
+
+    @BeforeEach
+    void setUp() {
+        memberRepository = mock(MemberRepository.class);
+        memberCache = new MemberCache();
+        ReflectionTestUtils.setField(memberCache, "memberRepository", memberRepository);
+        ReflectionTestUtils.setField(memberCache, "memberMapper", new MemberMapper());
+        when(memberRepository.findById("1")).thenReturn(Optional.of(member));
+    }
+
+    @Test
+    void whenReadTwice_thenLoadedOnce() {
+        // Act
+        MemberCache.CachedMember first = memberCache.get("1").orElseThrow();
+        MemberCache.CachedMember second = memberCache.get("1").orElseThrow();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("ann@example.com", first.member().getEmail());
+        verify(memberRepository, times(1)).findById("1");
+    }
+
+    @Test
+    void whenMissing_thenEmptyAndNotCached() {
+        // Arrange
+        when(memberRepository.findById("2")).thenReturn(Optional.empty());
+
+        // Act
+        assertTrue(memberCache.get("2").isEmpty());
+        assertTrue(memberCache.get("2").isEmpty());
+
+        // Assert
+        verify(memberRepository, times(2)).findById("2");
+    }
+
+    @Test
+    void whenSavedOrDeleted_thenEvicted() {
+        // Arrange
+        memberCache.get("1");
+
+        // Act & Assert
+        memberCache.onAfterSave(new AfterSaveEvent<>(member, new Document(), "members"));
+        assertNull(memberCache.getCache().getIfPresent("1"));
+
+        memberCache.get("1");
+        memberCache.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", "1"), Member.class, "members"));
+        assertNull(memberCache.getCache().getIfPresent("1"));
+
+        memberCache.get("1");
+        memberCache.onAfterDelete(new AfterDeleteEvent<>(
+                new Document("_id", new Document("$in", List.of("1"))), Member.class, "members"));
+        assertNull(memberCache.getCache().getIfPresent("1"));
+    }
+
+    @Test
+    void whenVersioned_thenEtagIsTheVersion() {
+        // Act & Assert
+        assertEquals("\"0\"", MemberCache.etag(member));
+        assertEquals("\"5\"", MemberCache.etag(new Member("1", "Ann Lee", "ann@example.com", "+15550001111", 5L)));
+    }
+}
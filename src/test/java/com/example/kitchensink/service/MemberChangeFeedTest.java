@@ -0,0 +1,338 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.MemberChangeEvent;
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberChangeFeedTest {
+
+    private MemberChangeFeed changeFeed;
+    private MemberCollectionVersion collectionVersion;
+    private MemberSearchIndex searchIndex;
+    private MemberCache memberCache;
+
+    @BeforeEach
+    void setUp() {
+        changeFeed = new MemberChangeFeed();
+        collectionVersion = new MemberCollectionVersion();
+        ReflectionTestUtils.setField(changeFeed, "memberMapper", new MemberMapper());
+        ReflectionTestUtils.setField(changeFeed, "collectionVersion", collectionVersion);
+        searchIndex = mock(MemberSearchIndex.class);
+        ReflectionTestUtils.setField(changeFeed, "memberSearchIndex", searchIndex);
+        memberCache = mock(MemberCache.class);
+        ReflectionTestUtils.setField(changeFeed, "memberCache", memberCache);
+        // Nothing is sent, so tests can inspect what each subscriber has queued
+        ReflectionTestUtils.setField(changeFeed, "senders", mock(ExecutorService.class));
+    }
+
+    @Test
+    void whenMemberChangesAgainBeforeSend_thenOnlyLatestQueuedInOrder() {
+        // Arrange
+        MemberChangeFeed.Subscriber subscriber = new MemberChangeFeed.Subscriber(new SseEmitter(), 10);
+
+        // Act
+        subscriber.offer(event("1", "m1"));
+        subscriber.offer(event("2", "m2"));
+        subscriber.offer(event("3", "m1"));
+
+        // Assert
+        MemberChangeFeed.Batch batch = subscriber.take();
+        assertEquals(List.of("2", "3"), batch.events().stream().map(MemberChangeEvent::getId).toList());
+        assertFalse(batch.reset());
+        assertNull(subscriber.take());
+    }
+
+    @Test
+    void whenSubscriberFallsTooFarBehind_thenBufferDroppedForReset() {
+        // Arrange
+        MemberChangeFeed.Subscriber subscriber = new MemberChangeFeed.Subscriber(new SseEmitter(), 2);
+
+        // Act
+        subscriber.offer(event("1", "m1"));
+        subscriber.offer(event("2", "m2"));
+        subscriber.offer(event("3", "m3"));
+
+        // Assert
+        MemberChangeFeed.Batch batch = subscriber.take();
+        assertTrue(batch.reset());
+        assertEquals(List.of("3"), batch.events().stream().map(MemberChangeEvent::getId).toList());
+    }
+
+    @Test
+    void whenResumedWithKnownEventId_thenMissedEventsReplayed() {
+        // Arrange
+        for (String memberId : new String[] {"m1", "m2", "m3"}) {
+            changeFeed.publishLocal(MemberChangeEvent.CREATED, memberId,
+                    new Member(memberId, "Ann Lee", memberId + "@example.com", "+15550001111"));
+        }
+        String firstId = recentIds().get(0);
+
+        // Act
+        MemberChangeFeed.Batch batch = subscribe(firstId).take();
+
+        // Assert
+        assertTrue(batch.heartbeat());
+        assertFalse(batch.reset());
+        assertEquals(List.of("m2", "m3"), batch.events().stream().map(MemberChangeEvent::getMemberId).toList());
+    }
+
+    @Test
+    void whenResumedWithUnknownEventId_thenReset() {
+        // Arrange
+        changeFeed.publishLocal(MemberChangeEvent.DELETED, "m1", null);
+
+        // Act
+        MemberChangeFeed.Batch batch = subscribe("expired-token").take();
+
+        // Assert
+        assertTrue(batch.reset());
+        assertTrue(batch.events().isEmpty());
+    }
+
+    @Test
+    void whenSubscribed_thenLaterWritesQueued() {
+        // Arrange
+        MemberChangeFeed.Subscriber subscriber = subscribe(null);
+        subscriber.take();
+
+        // Act
+        changeFeed.onAfterSave(new AfterSaveEvent<>(
+                new Member("m1", "Ann Lee", "ann@example.com", "+15550001111", 0L), new Document(), "members"));
+        changeFeed.onAfterSave(new AfterSaveEvent<>(
+                new Member("m2", "Bo Chan", "bo@example.com", "+15550002222", 3L), new Document(), "members"));
+        changeFeed.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", "m3"), Member.class, "members"));
+
+        // Assert
+        List<MemberChangeEvent> events = subscriber.take().events();
+        assertEquals(List.of(MemberChangeEvent.CREATED, MemberChangeEvent.UPDATED, MemberChangeEvent.DELETED),
+                events.stream().map(MemberChangeEvent::getType).toList());
+        assertEquals("bo@example.com", events.get(1).getMember().getEmail());
+        assertNull(events.get(2).getMember());
+    }
+
+    @Test
+    void whenSubscriberLimitReached_thenSubscribeRefused() {
+        // Arrange
+        ReflectionTestUtils.setField(changeFeed, "maxSubscribers", 1);
+        changeFeed.subscribe(null);
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> changeFeed.subscribe(null));
+        assertEquals(1, changeFeed.subscriberCount());
+    }
+
+    @Test
+    void whenSendBlockedPastTimeout_thenSubscriberDropped() {
+        // Arrange
+        MemberChangeFeed.Subscriber stalled = subscribe(null);
+        MemberChangeFeed.Subscriber reading = subscribe(null);
+        reading.take();
+        stalled.sendingSince = System.nanoTime() - TimeUnit.SECONDS.toNanos(11);
+        reading.sendingSince = System.nanoTime();
+
+        // Act
+        changeFeed.heartbeat();
+
+        // Assert
+        assertEquals(1, changeFeed.subscriberCount());
+        assertTrue(reading.take().heartbeat());
+    }
+
+    @Test
+    void whenChangeStreamActive_thenLocalWritesNotPublished() {
+        // Arrange
+        ReflectionTestUtils.setField(changeFeed, "changeStreamActive", true);
+        MemberChangeFeed.Subscriber subscriber = subscribe(null);
+        subscriber.take();
+
+        // Act
+        changeFeed.publishLocal(MemberChangeEvent.DELETED, "m1", null);
+
+        // Assert
+        assertNull(subscriber.take());
+        assertTrue(recentIds().isEmpty());
+    }
+
+    @Test
+    void whenChangeStreamFailsToStart_thenLocalWritesStillPublished() throws InterruptedException {
+        // Arrange
+        Subscription subscription = registerChangeStream();
+        when(subscription.await(any(Duration.class))).thenReturn(true);
+        when(subscription.isActive()).thenReturn(false);
+
+        // Act
+        ReflectionTestUtils.invokeMethod(changeFeed, "openChangeStream", (Object) null);
+
+        // Assert
+        assertEquals(false, ReflectionTestUtils.getField(changeFeed, "changeStreamActive"));
+    }
+
+    @Test
+    void whenChangeStreamRunning_thenLocalWritesLeftToIt() throws InterruptedException {
+        // Arrange
+        Subscription subscription = registerChangeStream();
+        when(subscription.await(any(Duration.class))).thenReturn(true);
+        when(subscription.isActive()).thenReturn(true);
+
+        // Act
+        ReflectionTestUtils.invokeMethod(changeFeed, "openChangeStream", (Object) null);
+
+        // Assert
+        assertEquals(true, ReflectionTestUtils.getField(changeFeed, "changeStreamActive"));
+    }
+
+    @Test
+    void whenChangeStreamLostWithoutToken_thenReopenedWithBackoff() {
+        // Arrange
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        ReflectionTestUtils.setField(changeFeed, "scheduler", scheduler);
+        MemberChangeFeed.Subscriber subscriber = subscribe(null);
+        subscriber.take();
+
+        // Act
+        ReflectionTestUtils.invokeMethod(changeFeed, "onChangeStreamError", new IllegalStateException("lost"));
+        ReflectionTestUtils.invokeMethod(changeFeed, "onChangeStreamError", new IllegalStateException("lost"));
+
+        // Assert
+        verify(scheduler).schedule(any(Runnable.class), eq(5000L), eq(TimeUnit.MILLISECONDS));
+        verify(scheduler).schedule(any(Runnable.class), eq(10000L), eq(TimeUnit.MILLISECONDS));
+        assertTrue(subscriber.take().reset());
+        assertNull(subscriber.take());
+    }
+
+    @Test
+    void whenFreshStreamOpensAfterLoss_thenSubscribersReset() throws InterruptedException {
+        // Arrange
+        Subscription subscription = registerChangeStream();
+        when(subscription.await(any(Duration.class))).thenReturn(true);
+        when(subscription.isActive()).thenReturn(true);
+        MemberChangeFeed.Subscriber subscriber = subscribe(null);
+        subscriber.take();
+        ReflectionTestUtils.setField(changeFeed, "streamLost", true);
+        String before = collectionVersion.tag();
+
+        // Act
+        ReflectionTestUtils.invokeMethod(changeFeed, "openChangeStream", (Object) null);
+
+        // Assert
+        assertNotEquals(before, collectionVersion.tag());
+        assertEquals(true, ReflectionTestUtils.getField(changeFeed, "changeStreamActive"));
+        assertTrue(subscriber.take().reset());
+        verify(memberCache).evictAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenChangeStreamEventArrives_thenCollectionVersionBumped() {
+        // Arrange
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getResumeToken()).thenReturn(new BsonDocument("_data", new BsonString("8264")));
+        when(change.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString("m1")));
+        when(change.getOperationType()).thenReturn(OperationType.DELETE);
+        Message<ChangeStreamDocument<Document>, Member> message = mock(Message.class);
+        when(message.getRaw()).thenReturn(change);
+        String before = collectionVersion.tag();
+
+        // Act
+        ReflectionTestUtils.invokeMethod(changeFeed, "onChange", message);
+
+        // Assert
+        assertNotEquals(before, collectionVersion.tag());
+        assertEquals(List.of("8264"), recentIds());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenChangeStreamReportsOtherNodesWrites_thenSearchIndexUpdated() {
+        // Arrange
+        Member renamed = new Member("m1", "Ann Lee", "ann@example.com", "+15550001111", 2L);
+        Message<ChangeStreamDocument<Document>, Member> update = changeMessage("8265", "m1", OperationType.UPDATE);
+        when(update.getBody()).thenReturn(renamed);
+        Message<ChangeStreamDocument<Document>, Member> delete = changeMessage("8266", "m2", OperationType.DELETE);
+
+        // Act
+        ReflectionTestUtils.invokeMethod(changeFeed, "onChange", update);
+        ReflectionTestUtils.invokeMethod(changeFeed, "onChange", delete);
+
+        // Assert
+        verify(searchIndex).put(renamed);
+        verify(searchIndex).remove("m2");
+        verify(memberCache).evict("m1");
+        verify(memberCache).evict("m2");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Message<ChangeStreamDocument<Document>, Member> changeMessage(String token, String memberId,
+                                                                                OperationType operationType) {
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getResumeToken()).thenReturn(new BsonDocument("_data", new BsonString(token)));
+        when(change.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString(memberId)));
+        when(change.getOperationType()).thenReturn(operationType);
+        Message<ChangeStreamDocument<Document>, Member> message = mock(Message.class);
+        when(message.getRaw()).thenReturn(change);
+        return message;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Subscription registerChangeStream() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(Member.class)).thenReturn("members");
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        Subscription subscription = mock(Subscription.class);
+        when(container.register(any(ChangeStreamRequest.class), eq(Member.class), any())).thenReturn(subscription);
+        ReflectionTestUtils.setField(changeFeed, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(changeFeed, "changeStreamContainer", container);
+        return subscription;
+    }
+
+    private MemberChangeFeed.Subscriber subscribe(String lastEventId) {
+        SseEmitter emitter = changeFeed.subscribe(lastEventId);
+        @SuppressWarnings("unchecked")
+        Set<MemberChangeFeed.Subscriber> subscribers =
+                (Set<MemberChangeFeed.Subscriber>) ReflectionTestUtils.getField(changeFeed, "subscribers");
+        return subscribers.stream().filter(subscriber -> subscriber.emitter == emitter).findFirst().orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> recentIds() {
+        Collection<MemberChangeEvent> recent =
+                (Collection<MemberChangeEvent>) ReflectionTestUtils.getField(changeFeed, "recent");
+        return recent.stream().map(MemberChangeEvent::getId).toList();
+    }
+
+    private static MemberChangeEvent event(String id, String memberId) {
+        return new MemberChangeEvent(id, MemberChangeEvent.UPDATED, memberId, null);
+    }
+}
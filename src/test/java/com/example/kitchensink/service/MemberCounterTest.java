@@ -0,0 +1,73 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.model.Member;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemberCounterTest {
+
+    private MemberCounter memberCounter;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.count(any(Query.class), eq(Member.class))).thenReturn(10L);
+        memberCounter = new MemberCounter();
+        ReflectionTestUtils.setField(memberCounter, "mongoTemplate", mongoTemplate);
+        // Loads the initial count
+        memberCounter.get();
+    }
+
+    @Test
+    void whenMemberInserted_thenCounted() {
+        // Act
+        memberCounter.onAfterSave(saved(member(0L)));
+
+        // Assert
+        assertEquals(11, memberCounter.get());
+    }
+
+    @Test
+    void whenInsertFailedBeforeUpdate_thenUpdateNotCounted() {
+        // Arrange: an insert converted but never saved, as when the email is taken
+        memberCounter.onBeforeConvert(new BeforeConvertEvent<>(member(null), "members"));
+
+        // Act: a conditional update raises only an after-save event
+        memberCounter.onAfterSave(saved(member(3L)));
+
+        // Assert
+        assertEquals(10, memberCounter.get());
+    }
+
+    @Test
+    void whenMemberDeletedById_thenUncounted() {
+        // Act
+        memberCounter.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", "m1"), Member.class, "members"));
+
+        // Assert
+        assertEquals(9, memberCounter.get());
+    }
+
+    private static Member member(Long version) {
+        Member member = new Member("m1", "Ann Lee", "ann@example.com", "12345678901");
+        member.setVersion(version);
+        return member;
+    }
+
+    private static AfterSaveEvent<Member> saved(Member member) {
+        return new AfterSaveEvent<>(member, new Document(), "members");
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.model.Member;
+import com.example.kitchensink.security.BloomFilter;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MemberEmailFilterTest {
+
+    private MongoTemplate mongoTemplate;
+    private MemberEmailFilter emailFilter;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.estimatedCount(Member.class)).thenReturn(2L);
+        when(mongoTemplate.stream(any(Query.class), eq(Member.class))).thenAnswer(invocation -> Stream.of(
+                new Member(null, null, "ann@example.com", null),
+                new Member(null, null, "bo@example.com", null)));
+        emailFilter = new MemberEmailFilter();
+        ReflectionTestUtils.setField(emailFilter, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(emailFilter, "expectedEntries", 16);
+    }
+
+    @Test
+    void whenNotLoaded_thenEveryEmailMightExist() {
+        // Act & Assert
+        assertFalse(emailFilter.isReady());
+        assertTrue(emailFilter.mightExist("new@example.com"));
+    }
+
+    @Test
+    void whenLoaded_thenStoredEmailsMightExistAndNewOnesDoNot() {
+        // Act
+        emailFilter.loadFromDatabase();
+
+        // Assert
+        assertTrue(emailFilter.isReady());
+        assertTrue(emailFilter.mightExist("ann@example.com"));
+        assertTrue(emailFilter.mightExist("bo@example.com"));
+        long falsePositives = IntStream.range(0, 1000)
+                .filter(i -> emailFilter.mightExist("new" + i + "@example.com"))
+                .count();
+        assertTrue(falsePositives < 50, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void whenMemberSaved_thenEmailAdded() {
+        // Arrange
+        emailFilter.loadFromDatabase();
+
+        // Act
+        emailFilter.onAfterSave(new AfterSaveEvent<>(
+                new Member("3", "Cy Ng", "cy@example.com", "+15550003333"), new Document(), "members"));
+
+        // Assert
+        assertTrue(emailFilter.mightExist("cy@example.com"));
+    }
+
+    @Test
+    void whenFilterOutgrowsItsSizing_thenRebuiltLarger() throws InterruptedException {
+        // Arrange
+        emailFilter.loadFromDatabase();
+        when(mongoTemplate.estimatedCount(Member.class)).thenReturn(1000L);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            emailFilter.put("member" + i + "@example.com");
+        }
+        for (int i = 0; i < 200 && capacity() < 2000; i++) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(2000, capacity());
+        assertTrue(emailFilter.mightExist("ann@example.com"));
+    }
+
+    private int capacity() {
+        return ((BloomFilter) ReflectionTestUtils.getField(emailFilter, "filter")).capacity();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class MemberExportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Spy
+    private MemberMapper memberMapper = new MemberMapper();
+
+    @InjectMocks
+    private MemberExportService memberExportService;
+
+    @Test
+    void whenExportNdjson_thenOneJsonObjectPerLineAndCursorClosed() throws IOException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Member> members = Stream.of(member("1", "Ann Lee", "ann@example.com"), member("2", "Bo Li", "bo@example.com"))
+                .onClose(() -> closed.set(true));
+        when(mongoTemplate.stream(any(Query.class), eq(Member.class))).thenReturn(members);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = memberExportService.export(out, MemberExportService.Format.NDJSON, null);
+
+        // Assert
+        assertEquals(2, exported);
+        assertEquals("""
+                {"id":"1","name":"Ann Lee","email":"ann@example.com","phoneNumber":"1234567890"}
+                {"id":"2","name":"Bo Li","email":"bo@example.com","phoneNumber":"1234567890"}
+                """, out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void whenExportCsvWithFields_thenProjectedColumnsAndQuotedValues() throws IOException {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(Member.class)))
+                .thenReturn(Stream.of(member("1", "Lee, \"Ann\"", "ann@example.com")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Set<String> fields = new LinkedHashSet<>(List.of("name"));
+
+        // Act
+        memberExportService.export(out, MemberExportService.Format.CSV, fields);
+
+        // Assert
+        assertEquals("id,name\r\n1,\"Lee, \"\"Ann\"\"\"\r\n", out.toString(StandardCharsets.UTF_8));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Member.class));
+        assertEquals(1, query.getValue().getFieldsObject().get("name"));
+        assertFalse(query.getValue().getFieldsObject().containsKey("email"));
+    }
+
+    @Test
+    void whenClientDisconnects_thenCursorIsClosed() {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(mongoTemplate.stream(any(Query.class), eq(Member.class)))
+                .thenReturn(Stream.of(member("1", "Ann Lee", "ann@example.com")).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream failing = new ByteArrayOutputStream() {
+            @Override
+            public void flush() throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // Act & Assert
+        assertThrows(IOException.class,
+                () -> memberExportService.export(failing, MemberExportService.Format.CSV, null));
+        assertTrue(closed.get());
+    }
+
+    private static Member member(String id, String name, String email) {
+        return new Member(id, name, email, "1234567890");
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.MemberImportResponse;
+import com.example.kitchensink.mapper.MemberMapper;
+import com.example.kitchensink.model.Member;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class MemberImportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private MemberCounter memberCounter;
+
+    @Mock
+    private MemberSearchIndex memberSearchIndex;
+
+    @Mock
+    private MemberCollectionVersion collectionVersion;
+
+    @Mock
+    private MemberEmailFilter memberEmailFilter;
+
+    @Mock
+    private MemberChangeFeed memberChangeFeed;
+
+    @Spy
+    private MemberMapper memberMapper = new MemberMapper();
+
+    @InjectMocks
+    private MemberImportService memberImportService;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Member.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of());
+        when(memberEmailFilter.mightExist(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void whenImportNdjson_thenValidRowsBulkInsertedAndBadRowsReportedByLine() throws IOException {
+        // Arrange
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+        String body = """
+                {"name":"Ann Lee","email":"ann@example.com","phoneNumber":"12345678901"}
+                {"name":"Bo Li","email":"bo@example.com","phoneNumber":"not a phone"}
+
+                {"name":
+                """;
+
+        // Act
+        MemberImportResponse response = memberImportService.importMembers(stream(body), MemberImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(3, response.getReceived());
+        assertEquals(1, response.getImported());
+        assertEquals(2, response.getFailed());
+        assertEquals(2, response.getFailures().get(0).getLine());
+        assertEquals("phoneNumber", response.getFailures().get(0).getField());
+        assertEquals(4, response.getFailures().get(1).getLine());
+        verify(bulkOperations).insert(argThat((List<? extends Object> members) -> members.size() == 1));
+        verify(memberCounter).invalidate();
+        verify(collectionVersion).bump();
+    }
+
+    @Test
+    void whenNdjsonRowIsNull_thenOnlyThatRowFails() throws IOException {
+        // Arrange
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+        String body = """
+                null
+                {"name":"Ann Lee","email":"ann@example.com","phoneNumber":"12345678901"}
+                """;
+
+        // Act
+        MemberImportResponse response = memberImportService.importMembers(stream(body), MemberImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertEquals(1, response.getFailures().get(0).getLine());
+    }
+
+    @Test
+    void whenEmailFilterRulesOutEveryEmail_thenNoExistenceQuery() throws IOException {
+        // Arrange
+        when(memberEmailFilter.mightExist(anyString())).thenReturn(false);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()));
+        String body = "name,email,phoneNumber\r\n"
+                + "Ann Lee,ann@example.com,12345678901\r\n"
+                + "Bo Li,bo@example.com,12345678902\r\n";
+
+        // Act
+        MemberImportResponse response = memberImportService.importMembers(stream(body), MemberImportService.Format.CSV);
+
+        // Assert
+        assertEquals(2, response.getImported());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Member.class));
+    }
+
+    @Test
+    void whenImportCsvWithRepeatedOrExistingEmails_thenOnlyNewEmailsInserted() throws IOException {
+        // Arrange
+        Member existing = new Member(null, null, "taken@example.com", null);
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(existing));
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+        String body = "phoneNumber,email,name\r\n"
+                + "12345678901,ann@example.com,\"Ann Lee\"\r\n"
+                + "12345678902,ann@example.com,Ann Again\r\n"
+                + "12345678903,taken@example.com,Someone Else\r\n";
+
+        // Act
+        MemberImportResponse response = memberImportService.importMembers(stream(body), MemberImportService.Format.CSV);
+
+        // Assert
+        assertEquals(3, response.getReceived());
+        assertEquals(1, response.getImported());
+        assertEquals(List.of(3L, 4L), response.getFailures().stream().map(MemberImportResponse.Failure::getLine).toList());
+        assertTrue(response.getFailures().stream().allMatch(failure -> "email".equals(failure.getField())));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Member>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(inserted.capture());
+        assertEquals("Ann Lee", inserted.getValue().get(0).getName());
+        assertEquals("12345678901", inserted.getValue().get(0).getPhoneNumber());
+    }
+
+    @Test
+    void whenBulkInsertHitsDuplicateKey_thenRowIsReportedAndRestCounted() throws IOException {
+        // Arrange
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1);
+        BulkWriteResult partial = BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of());
+        MongoBulkWriteException cause = new MongoBulkWriteException(partial, List.of(duplicate), null,
+                new ServerAddress(), java.util.Set.of());
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("Bulk write failed", cause));
+        String body = """
+                {"name":"Ann Lee","email":"ann@example.com","phoneNumber":"12345678901"}
+                {"name":"Bo Li","email":"bo@example.com","phoneNumber":"12345678902"}
+                """;
+
+        // Act
+        MemberImportResponse response = memberImportService.importMembers(stream(body), MemberImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertEquals(2, response.getFailures().get(0).getLine());
+        assertEquals("email", response.getFailures().get(0).getField());
+    }
+
+    @Test
+    void whenCsvHeaderMissesColumns_thenEveryRowFails() throws IOException {
+        // Act
+        MemberImportResponse response = memberImportService.importMembers(
+                stream("name,email\nAnn Lee,ann@example.com\n"), MemberImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, response.getFailed());
+        assertEquals(0, response.getImported());
+        verify(bulkOperations, never()).insert(anyList());
+    }
+
+    @Test
+    void whenParseCsvRow_thenQuotesAndEscapedQuotesHandled() {
+        assertEquals(List.of("a", "b, \"c\"", ""), MemberImportService.parseCsvRow("a,\"b, \"\"c\"\"\","));
+        assertNull(MemberImportService.parseCsvRow("\"unterminated"));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.MemberDto;
+import com.example.kitchensink.dto.response.ApiResponse;
+import com.example.kitchensink.dto.response.PagedResponse;
+import com.example.kitchensink.model.Member;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberPageCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MemberCollectionVersion collectionVersion;
+    private MemberPageCache pageCache;
+
+    @BeforeEach
+    void setUp() {
+        collectionVersion = new MemberCollectionVersion();
+        pageCache = new MemberPageCache();
+        ReflectionTestUtils.setField(pageCache, "collectionVersion", collectionVersion);
+        ReflectionTestUtils.setField(pageCache, "objectMapper", objectMapper);
+        // One window for the whole test, unless a test shortens it
+        ReflectionTestUtils.setField(pageCache, "ttlMs", Long.MAX_VALUE);
+    }
+
+    @Test
+    void whenNothingChanged_thenSameEtag() {
+        // Act & Assert
+        assertEquals(pageCache.etag("0|10|name"), pageCache.etag("0|10|name"));
+        assertNotEquals(pageCache.etag("0|10|name"), pageCache.etag("1|10|name"));
+    }
+
+    @Test
+    void whenMemberWritten_thenEtagChanges() {
+        // Arrange
+        String before = pageCache.etag("0|10|name");
+
+        // Act & Assert
+        collectionVersion.onAfterSave(new AfterSaveEvent<>(new Member(), new Document(), "members"));
+        String afterSave = pageCache.etag("0|10|name");
+        assertNotEquals(before, afterSave);
+
+        collectionVersion.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", "1"), Member.class, "members"));
+        assertNotEquals(afterSave, pageCache.etag("0|10|name"));
+    }
+
+    @Test
+    void whenTtlWindowPasses_thenEtagChanges() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(pageCache, "ttlMs", 1L);
+        String before = pageCache.etag("0|10|name");
+
+        // Act
+        Thread.sleep(5);
+
+        // Assert
+        assertNotEquals(before, pageCache.etag("0|10|name"));
+    }
+
+    @Test
+    void whenRestarted_thenVersionsDoNotRepeatTags() {
+        // Act & Assert
+        assertNotEquals(collectionVersion.tag(), new MemberCollectionVersion().tag());
+    }
+
+    @Test
+    void whenPageCached_thenServedAsTheSameJson() throws Exception {
+        // Arrange
+        MemberDto member = new MemberDto();
+        member.setId("1");
+        member.setName("Ann Lee");
+        PagedResponse<MemberDto> page = new PagedResponse<>();
+        page.setContent(List.of(member));
+        ApiResponse<PagedResponse<MemberDto>> response = ApiResponse.success(page);
+        String etag = pageCache.etag("0|10|name");
+
+        // Act
+        pageCache.put(etag, response);
+
+        // Assert
+        assertEquals(objectMapper.writeValueAsString(response),
+                objectMapper.writeValueAsString(pageCache.get(etag)));
+        assertSame(page, pageCache.get(etag).getData());
+        assertNull(pageCache.get(pageCache.etag("1|10|name")));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.model.Member;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MemberSearchIndexTest {
+
+    private MongoTemplate mongoTemplate;
+    private MemberSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.stream(any(Query.class), eq(Member.class))).thenReturn(Stream.of(
+                new Member("1", "Ann Lee", "ann.lee@example.com", "+15550001111"),
+                new Member("2", "Bob Leeds", "bob@sample.org", "+15550002222"),
+                new Member("3", "Carla Ng", "carla@example.com", "+15559993333")));
+        searchIndex = new MemberSearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "mongoTemplate", mongoTemplate);
+        searchIndex.loadFromDatabase();
+    }
+
+    @Test
+    void whenSubstringQueried_thenMatchesAnyFieldIgnoringCase() {
+        // Act & Assert
+        assertEquals(List.of("1", "2"), ids(searchIndex.search("LEE", 10)));
+        assertEquals(List.of("1", "3"), ids(searchIndex.search("example.com", 10)));
+        assertEquals(List.of("3"), ids(searchIndex.search("5999", 10)));
+        assertEquals(List.of(), ids(searchIndex.search("zzz", 10)));
+    }
+
+    @Test
+    void whenTrigramsPresentButNotAdjacent_thenNoFalsePositive() {
+        // "ann" and "nle" both occur in Ann Lee's fields, but "annle" does not
+        assertEquals(List.of(), ids(searchIndex.search("annle", 10)));
+    }
+
+    @Test
+    void whenShortQuery_thenMatchesWordStarts() {
+        // Act & Assert
+        assertEquals(List.of("3"), ids(searchIndex.search("ng", 10)));
+        assertEquals(List.of("2"), ids(searchIndex.search("b", 10)));
+        assertEquals(List.of("1", "2"), ids(searchIndex.search("le", 10)));
+    }
+
+    @Test
+    void whenLimitReached_thenStopsEarly() {
+        // Act & Assert
+        assertEquals(1, searchIndex.search("+1555", 1).size());
+    }
+
+    @Test
+    void whenMemberChangedOrRemoved_thenIndexFollows() {
+        // Act
+        searchIndex.put(new Member("1", "Annie Ray", "annie@example.com", "+15550001111"));
+        searchIndex.remove("3");
+        searchIndex.put(new Member("4", "Dan Lee", "dan@example.com", "+15550004444"));
+
+        // Assert
+        assertEquals(List.of("2", "4"), ids(searchIndex.search("lee", 10)));
+        assertEquals(List.of("1"), ids(searchIndex.search("annie", 10)));
+        assertEquals(List.of(), ids(searchIndex.search("carla", 10)));
+        assertEquals(3, searchIndex.size());
+    }
+
+    @Test
+    void whenNotLoaded_thenServiceUnavailable() {
+        // Arrange
+        MemberSearchIndex cold = new MemberSearchIndex();
+        ReflectionTestUtils.setField(cold, "enabled", false);
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> cold.search("ann", 10));
+    }
+
+    private static List<String> ids(List<Member> members) {
+        return members.stream().map(Member::getId).toList();
+    }
+}
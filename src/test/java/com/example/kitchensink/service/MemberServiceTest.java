@@ -1,5 +1,6 @@
 package com.example.kitchensink.service;
 
+import com.example.kitchensink.exception.DuplicateResourceException;
 import com.example.kitchensink.model.Member;
 import com.example.kitchensink.repository.MemberRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,9 +8,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,6 +24,9 @@ class MemberServiceTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private MemberEmailFilter memberEmailFilter;
+
     @InjectMocks
     private MemberService memberService;
 
@@ -78,43 +85,93 @@ class MemberServiceTest {
 
     @Test
     void updateMember() {
-        Member existingMember = new Member();
-        existingMember.setId("1");
-        existingMember.setName("John Doe");
-        existingMember.setEmail("john@example.com");
-        existingMember.setPhoneNumber("1234567890");
-
-        Member updatedMember = new Member();
-        updatedMember.setName("John Updated");
-        updatedMember.setEmail("johnupdated@example.com");
-        updatedMember.setPhoneNumber("0987654321");
+        Member updatedMember = new Member("1", "John Updated", "johnupdated@example.com", "0987654321", 2L);
+        Member changes = new Member(null, "John Updated", "johnupdated@example.com", "0987654321");
 
-        when(memberRepository.findById("1")).thenReturn(Optional.of(existingMember));
-        when(memberRepository.save(any(Member.class))).thenReturn(updatedMember);
+        when(memberRepository.updateIfMatches(eq("1"), isNull(), anyMap())).thenReturn(updatedMember);
 
-        Optional<Member> result = memberService.updateMember("1", updatedMember);
+        Optional<Member> result = memberService.updateMember("1", changes);
 
         assertTrue(result.isPresent());
         assertEquals("John Updated", result.get().getName());
         assertEquals("johnupdated@example.com", result.get().getEmail());
         assertEquals("0987654321", result.get().getPhoneNumber());
-        verify(memberRepository, times(1)).findById("1");
-        verify(memberRepository, times(1)).save(any(Member.class));
+        verify(memberRepository).updateIfMatches("1", null, Map.of(
+                "name", "John Updated", "email", "johnupdated@example.com", "phoneNumber", "0987654321"));
+        verify(memberRepository, never()).findById(any());
+        verify(memberRepository, never()).save(any(Member.class));
     }
 
     @Test
-    void deleteMember() {
-        Member member = new Member();
-        member.setId("1");
-        member.setName("John Doe");
+    void updateMemberSetsOnlyGivenFields() {
+        when(memberRepository.updateIfMatches(eq("1"), eq(3L), anyMap())).thenReturn(new Member());
 
-        when(memberRepository.findById("1")).thenReturn(Optional.of(member));
+        memberService.updateMember("1", new Member(null, null, "new@example.com", null), 3L);
+
+        verify(memberRepository).updateIfMatches("1", 3L, Map.of("email", "new@example.com"));
+        verify(memberEmailFilter).put("new@example.com");
+    }
+
+    @Test
+    void updateMemberAtStaleVersion() {
+        when(memberRepository.updateIfMatches(eq("1"), eq(3L), anyMap())).thenReturn(null);
+        when(memberRepository.existsById("1")).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> memberService.updateMember("1", new Member(null, "John Doe", null, null), 3L));
+    }
+
+    @Test
+    void updateMissingMemberLeavesEmailFilterAlone() {
+        when(memberRepository.updateIfMatches(eq("9"), isNull(), anyMap())).thenReturn(null);
+
+        memberService.updateMember("9", new Member(null, null, "new@example.com", null));
+
+        verify(memberEmailFilter, never()).put(any());
+    }
+
+    @Test
+    void updateMissingMember() {
+        when(memberRepository.updateIfMatches(eq("9"), isNull(), anyMap())).thenReturn(null);
+
+        assertTrue(memberService.updateMember("9", new Member(null, "John Doe", null, null)).isEmpty());
+        verify(memberRepository, never()).existsById(any());
+    }
+
+    @Test
+    void deleteMember() {
+        when(memberRepository.deleteIfMatches("1", null)).thenReturn(true);
 
         boolean result = memberService.deleteMember("1");
 
         assertTrue(result);
-        verify(memberRepository, times(1)).findById("1");
-        verify(memberRepository, times(1)).delete(any(Member.class));
+        verify(memberRepository).deleteIfMatches("1", null);
+        verify(memberRepository, never()).findById(any());
     }
-}
 
+    @Test
+    void deleteMemberAtStaleVersion() {
+        when(memberRepository.deleteIfMatches("1", 3L)).thenReturn(false);
+        when(memberRepository.existsById("1")).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> memberService.deleteMember("1", 3L));
+    }
+
+    @Test
+    void deleteMissingMemberAtVersion() {
+        when(memberRepository.deleteIfMatches("9", 3L)).thenReturn(false);
+        when(memberRepository.existsById("9")).thenReturn(false);
+
+        assertFalse(memberService.deleteMember("9", 3L));
+    }
+
+    @Test
+    void updateMemberToTakenEmail() {
+        when(memberRepository.updateIfMatches(eq("1"), isNull(), anyMap()))
+                .thenThrow(new DuplicateKeyException("E11000 email_unique"));
+
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+                () -> memberService.updateMember("1", new Member(null, null, "taken@example.com", null)));
+        assertEquals("email", exception.getField());
+    }
+}
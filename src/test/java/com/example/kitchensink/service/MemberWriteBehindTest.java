@@ -0,0 +1,164 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.model.Member;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class MemberWriteBehindTest {
+
+    private MongoCollection<Document> collection;
+    private ApplicationEventPublisher eventPublisher;
+    private MemberWriteBehind writeBehind;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        collection = mock(MongoCollection.class);
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+                new MongoMappingContext());
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(Member.class)).thenReturn("members");
+        when(mongoTemplate.getCollection("members")).thenReturn(collection);
+        when(mongoTemplate.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+        when(collection.withWriteConcern(any(WriteConcern.class))).thenReturn(collection);
+
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        writeBehind = new MemberWriteBehind();
+        ReflectionTestUtils.setField(writeBehind, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(writeBehind, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(writeBehind, "writeConcernName", "MAJORITY");
+        ReflectionTestUtils.setField(writeBehind, "writeConcern", WriteConcern.MAJORITY);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void whenCreatesArriveTogether_thenOneInsertForAll() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(writeBehind, "maxBatch", 3);
+        ReflectionTestUtils.setField(writeBehind, "maxDelayMs", 10_000L);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+
+        // Act
+        List<Future<Member>> results = List.of(
+                callers.submit(() -> writeBehind.insert(new Member(null, "Ann Lee", "ann@example.com", "+15550001111"))),
+                callers.submit(() -> writeBehind.insert(new Member(null, "Bo Chan", "bo@example.com", "+15550002222"))),
+                callers.submit(() -> writeBehind.insert(new Member(null, "Cy Ng", "cy@example.com", "+15550003333"))));
+
+        // Assert
+        for (Future<Member> result : results) {
+            assertNotNull(result.get().getId());
+            assertEquals(0L, result.get().getVersion());
+        }
+        verify(collection, times(1)).insertMany(argThat(documents -> documents.size() == 3),
+                any(InsertManyOptions.class));
+        verify(collection).withWriteConcern(WriteConcern.MAJORITY);
+        // Version 0 marks each event as an insert for the member counter
+        verify(eventPublisher, times(3)).publishEvent(
+                argThat((AfterSaveEvent<Member> saved) -> saved.getSource().getVersion() == 0));
+        callers.shutdown();
+    }
+
+    @Test
+    void whenOneEmailIsTaken_thenOnlyThatCallerFails() {
+        // Arrange
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "E11000 duplicate key email_unique", new BsonDocument(), 0)),
+                null, new ServerAddress(), Set.of()));
+        MemberWriteBehind.PendingInsert taken = new MemberWriteBehind.PendingInsert(
+                new Member(null, "Ann Lee", "ann@example.com", "+15550001111"), new CompletableFuture<>());
+        MemberWriteBehind.PendingInsert fresh = new MemberWriteBehind.PendingInsert(
+                new Member(null, "Bo Chan", "bo@example.com", "+15550002222"), new CompletableFuture<>());
+
+        // Act
+        writeBehind.flush(List.of(taken, fresh));
+
+        // Assert
+        Exception failure = assertThrows(Exception.class, () -> taken.result().join());
+        assertInstanceOf(DuplicateKeyException.class, failure.getCause());
+        assertEquals("bo@example.com", fresh.result().join().getEmail());
+        verify(eventPublisher, times(1)).publishEvent(any(AfterSaveEvent.class));
+    }
+
+    @Test
+    void whenShutDown_thenCreatesRejected() throws InterruptedException {
+        // Arrange
+        writeBehind.shutdown();
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class,
+                () -> writeBehind.insert(new Member(null, "Ann Lee", "ann@example.com", "+15550001111")));
+    }
+
+    @Test
+    void whenWriteHangs_thenCallerTimesOutWith503() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(writeBehind, "maxBatch", 1);
+        ReflectionTestUtils.setField(writeBehind, "writeTimeoutMs", 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class))).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+
+        // Act & Assert
+        try {
+            assertThrows(ServiceUnavailableException.class,
+                    () -> writeBehind.insert(new Member(null, "Ann Lee", "ann@example.com", "+15550001111")));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void whenWriterDies_thenQueuedCreatesFailWith503() {
+        // Arrange: an Error escapes the writer's RuntimeException handling
+        ReflectionTestUtils.setField(writeBehind, "maxBatch", 1);
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(new OutOfMemoryError());
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class,
+                () -> writeBehind.insert(new Member(null, "Ann Lee", "ann@example.com", "+15550001111")));
+        assertThrows(ServiceUnavailableException.class,
+                () -> writeBehind.insert(new Member(null, "Bo Chan", "bo@example.com", "+15550002222")));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.model.User;
+import com.example.kitchensink.security.UserDetailsServiceImpl;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class PasswordUpgradeServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @InjectMocks
+    private PasswordUpgradeService passwordUpgradeService;
+
+    private final String TEST_USER_ID = "test-user-id";
+
+    @Test
+    void whenHashStillCurrent_thenPasswordUpgradedAndCacheEvicted() {
+        // Arrange
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}new-hash");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        passwordUpgradeService.upgradePassword(TEST_USER_ID, "password123", "old-hash");
+
+        // Assert
+        verify(mongoTemplate).updateFirst(any(Query.class), eq(Update.update("password", "{bcrypt}new-hash")),
+            eq(User.class));
+        verify(userDetailsService).evictById(TEST_USER_ID);
+    }
+
+    @Test
+    void whenHashChangedConcurrently_thenNothingEvicted() {
+        // Arrange
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}new-hash");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        passwordUpgradeService.upgradePassword(TEST_USER_ID, "password123", "old-hash");
+
+        // Assert
+        verify(userDetailsService, never()).evictById(any());
+    }
+
+    @Test
+    void whenHashingPoolBusy_thenUpgradeSkipped() {
+        // Arrange
+        when(passwordEncoder.encode(any())).thenThrow(new ServiceUnavailableException("Busy", 1));
+
+        // Act
+        passwordUpgradeService.upgradePassword(TEST_USER_ID, "password123", "old-hash");
+
+        // Assert
+        verifyNoInteractions(mongoTemplate);
+    }
+}
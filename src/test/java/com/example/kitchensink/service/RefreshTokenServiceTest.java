@@ -2,17 +2,26 @@ package com.example.kitchensink.service;
 
 import com.example.kitchensink.model.RefreshToken;
 import com.example.kitchensink.repository.RefreshTokenRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,6 +31,9 @@ class RefreshTokenServiceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
     @InjectMocks
     private RefreshTokenService refreshTokenService;
 
@@ -44,7 +56,6 @@ class RefreshTokenServiceTest {
     void whenCreateRefreshToken_thenSuccess() {
         // Arrange
         when(refreshTokenRepository.save(any(RefreshToken.class))).thenReturn(testRefreshToken);
-        when(refreshTokenRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.empty());
 
         // Act
         RefreshToken result = refreshTokenService.createRefreshToken(TEST_USER_ID);
@@ -58,21 +69,84 @@ class RefreshTokenServiceTest {
     }
 
     @Test
-    void whenCreateRefreshToken_withExistingToken_thenDeleteOldToken() {
+    void whenCreateRefreshToken_withExistingSession_thenKeepsOtherDevices() {
         // Arrange
-        RefreshToken oldToken = new RefreshToken();
-        oldToken.setId("old-token-id");
-        oldToken.setUserId(TEST_USER_ID);
-        
-        when(refreshTokenRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(oldToken));
+        when(refreshTokenRepository.save(any(RefreshToken.class))).then(returnsFirstArg());
+        when(mongoTemplate.find(any(Query.class), eq(RefreshToken.class))).thenReturn(List.of());
+
+        // Act
+        RefreshToken result = refreshTokenService.createRefreshToken(TEST_USER_ID, "laptop");
+
+        // Assert
+        assertEquals("laptop", result.getDeviceName());
+        assertNotNull(result.getCreatedAt());
+        verify(refreshTokenRepository, never()).delete(any(RefreshToken.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(RefreshToken.class));
+    }
+
+    @Test
+    void whenCreateRefreshToken_overSessionLimit_thenRevokesOldestSessions() {
+        // Arrange
+        RefreshToken firstStale = new RefreshToken();
+        firstStale.setId("stale-token-id");
         when(refreshTokenRepository.save(any(RefreshToken.class))).thenReturn(testRefreshToken);
+        when(mongoTemplate.find(any(Query.class), eq(RefreshToken.class))).thenReturn(List.of(firstStale));
 
         // Act
         refreshTokenService.createRefreshToken(TEST_USER_ID);
 
         // Assert
-        verify(refreshTokenRepository).delete(oldToken);
-        verify(refreshTokenRepository).save(any(RefreshToken.class));
+        ArgumentCaptor<Query> staleQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(staleQuery.capture(), eq(RefreshToken.class));
+        assertEquals("test-token-id", staleQuery.getValue().getQueryObject().get("_id", Document.class).get("$ne"));
+
+        ArgumentCaptor<Query> removeQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removeQuery.capture(), eq(RefreshToken.class));
+        assertEquals(List.of("stale-token-id"),
+            removeQuery.getValue().getQueryObject().get("_id", Document.class).get("$in"));
+    }
+
+    @Test
+    void whenCreateRefreshToken_thenTokensAreUnique() {
+        // Arrange
+        when(refreshTokenRepository.save(any(RefreshToken.class))).then(returnsFirstArg());
+
+        // Act
+        RefreshToken first = refreshTokenService.createRefreshToken(TEST_USER_ID);
+        RefreshToken second = refreshTokenService.createRefreshToken(TEST_USER_ID);
+
+        // Assert
+        assertNotEquals(first.getToken(), second.getToken());
+        assertEquals(43, first.getToken().length());
+    }
+
+    @Test
+    void whenRotateToken_thenReturnsRotatedSession() {
+        // Arrange
+        RefreshToken rotated = new RefreshToken();
+        rotated.setToken("rotated-token");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+            any(FindAndModifyOptions.class), eq(RefreshToken.class))).thenReturn(rotated);
+
+        // Act
+        Optional<RefreshToken> result = refreshTokenService.rotate(testRefreshToken);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("rotated-token", result.get().getToken());
+    }
+
+    @Test
+    void whenRotateAlreadyRotatedToken_thenReturnsEmpty() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+            any(FindAndModifyOptions.class), eq(RefreshToken.class))).thenReturn(null);
+
+        // Act
+        Optional<RefreshToken> result = refreshTokenService.rotate(testRefreshToken);
+
+        // Assert
+        assertTrue(result.isEmpty());
     }
 
     @Test
@@ -139,6 +213,9 @@ class RefreshTokenServiceTest {
 
     @Test
     void whenTokenExpirationCalculated_thenCorrectTimeSet() {
+        // Arrange
+        when(refreshTokenRepository.save(any(RefreshToken.class))).then(returnsFirstArg());
+
         // Act
         RefreshToken token = refreshTokenService.createRefreshToken(TEST_USER_ID);
 
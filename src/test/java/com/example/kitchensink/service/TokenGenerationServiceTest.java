@@ -0,0 +1,98 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.model.User;
+import com.example.kitchensink.security.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class TokenGenerationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @InjectMocks
+    private TokenGenerationService tokenGenerationService;
+
+    private User testUser;
+    private final String TEST_USER_ID = "test-user-id";
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenGenerationService, "cacheTtlMs", 30000L);
+
+        testUser = new User();
+        testUser.setId(TEST_USER_ID);
+        testUser.setTokenGeneration(2L);
+    }
+
+    @Test
+    void whenGenerationMatches_thenTokenIsCurrent() {
+        // Arrange
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(testUser);
+
+        // Act & Assert
+        assertTrue(tokenGenerationService.isCurrent(TEST_USER_ID, 2L));
+        assertFalse(tokenGenerationService.isCurrent(TEST_USER_ID, 1L));
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(User.class));
+    }
+
+    @Test
+    void whenUserMissing_thenTokenIsNotCurrent() {
+        // Arrange
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(null);
+
+        // Act & Assert
+        assertFalse(tokenGenerationService.isCurrent(TEST_USER_ID, 0L));
+    }
+
+    @Test
+    void whenRevokeAll_thenOlderTokensAreNoLongerCurrent() {
+        // Arrange
+        User bumped = new User();
+        bumped.setId(TEST_USER_ID);
+        bumped.setTokenGeneration(3L);
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(testUser);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+            any(FindAndModifyOptions.class), eq(User.class))).thenReturn(bumped);
+        assertTrue(tokenGenerationService.isCurrent(TEST_USER_ID, 2L));
+
+        // Act
+        tokenGenerationService.revokeAll(TEST_USER_ID);
+
+        // Assert
+        assertFalse(tokenGenerationService.isCurrent(TEST_USER_ID, 2L));
+        assertTrue(tokenGenerationService.isCurrent(TEST_USER_ID, 3L));
+        verify(userDetailsService).evictById(TEST_USER_ID);
+    }
+
+    @Test
+    void whenTtlElapsed_thenGenerationReloaded() {
+        // Arrange: a zero TTL expires every entry as soon as it is written
+        ReflectionTestUtils.setField(tokenGenerationService, "cacheTtlMs", 0L);
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(testUser);
+
+        // Act
+        tokenGenerationService.isCurrent(TEST_USER_ID, 2L);
+        tokenGenerationService.isCurrent(TEST_USER_ID, 2L);
+
+        // Assert
+        verify(mongoTemplate, times(2)).findOne(any(Query.class), eq(User.class));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.kitchensink.service;
+
+import com.example.kitchensink.dto.BulkRegisterResponse;
+import com.example.kitchensink.dto.RegisterRequest;
+import com.example.kitchensink.exception.DuplicateResourceException;
+import com.example.kitchensink.exception.ServiceUnavailableException;
+import com.example.kitchensink.model.Role;
+import com.example.kitchensink.model.User;
+import com.example.kitchensink.repository.UserRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class UserRegistrationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @InjectMocks
+    private UserRegistrationService userRegistrationService;
+
+    @Test
+    void whenRegister_thenSingleInsertWithHashedPassword() {
+        // Arrange
+        when(passwordEncoder.encode("password123")).thenReturn("hashed");
+        when(userRepository.insert(any(User.class))).then(invocation -> invocation.getArgument(0));
+
+        // Act
+        User user = userRegistrationService.register(request("newuser", "newuser@example.com"));
+
+        // Assert
+        assertEquals("hashed", user.getPassword());
+        assertEquals(Set.of(Role.ROLE_USER), user.getRoles());
+        verify(userRepository).insert(any(User.class));
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).existsByEmail(any());
+    }
+
+    @Test
+    void whenEmailAlreadyUsed_thenDuplicateResourceExceptionNamesField() {
+        // Arrange
+        when(passwordEncoder.encode(any())).thenReturn("hashed");
+        when(userRepository.insert(any(User.class))).thenThrow(new DuplicateKeyException(
+            "E11000 duplicate key error collection: KitchenSink_DB.users index: email dup key: { email: \"taken@example.com\" }"));
+
+        // Act & Assert
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+            () -> userRegistrationService.register(request("newuser", "taken@example.com")));
+        assertEquals("email", exception.getField());
+        assertEquals("Email is already in use!", exception.getMessage());
+    }
+
+    @Test
+    void whenBulkRegisterWithDuplicate_thenOthersInsertedAndDuplicateReported() {
+        // Arrange
+        when(passwordEncoder.encode(any())).thenReturn("hashed");
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulk);
+        BulkWriteError duplicate = new BulkWriteError(11000,
+            "E11000 duplicate key error collection: KitchenSink_DB.users index: username dup key: { username: \"bob\" }",
+            new BsonDocument(), 1);
+        when(bulk.execute()).thenThrow(new BulkOperationException("Bulk write failed",
+            new MongoBulkWriteException(BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()),
+                List.of(duplicate), null, new ServerAddress(), Set.of())));
+
+        // Act
+        BulkRegisterResponse response = userRegistrationService.registerAll(List.of(
+            request("alice", "alice@example.com"),
+            request("bob", "bob@example.com"),
+            request("carol", "carol@example.com")));
+
+        // Assert
+        verify(bulk).insert(anyList());
+        verify(passwordEncoder, times(3)).encode(eq("password123"));
+        assertEquals(3, response.getRequested());
+        assertEquals(2, response.getRegistered());
+        assertEquals(1, response.getFailures().size());
+        assertEquals(1, response.getFailures().get(0).getIndex());
+        assertEquals("username", response.getFailures().get(0).getField());
+    }
+
+    @Test
+    void whenHashingFailsOnLaterChunk_thenCommittedChunkReportedAndRestListed() {
+        // Arrange: the first 1000 hashes succeed, then the hashing pool stays overloaded
+        AtomicInteger encoded = new AtomicInteger();
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> {
+            if (encoded.incrementAndGet() > 1000) {
+                throw new ServiceUnavailableException("Password hashing is overloaded", 0);
+            }
+            return "hashed";
+        });
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(BulkWriteResult.acknowledged(1000, 0, 0, 0, List.of(), List.of()));
+        List<RegisterRequest> requests = IntStream.range(0, 1002)
+            .mapToObj(i -> request("user" + i, "user" + i + "@example.com"))
+            .toList();
+
+        // Act
+        BulkRegisterResponse response = userRegistrationService.registerAll(requests);
+
+        // Assert
+        verify(bulk, times(1)).execute();
+        assertEquals(1002, response.getRequested());
+        assertEquals(1000, response.getRegistered());
+        assertEquals(List.of(1000, 1001),
+            response.getFailures().stream().map(BulkRegisterResponse.Failure::getIndex).toList());
+        assertEquals("user1001", response.getFailures().get(1).getUsername());
+    }
+
+    @Test
+    void whenHashingFailsOnFirstChunk_thenThrownWithNothingWritten() {
+        // Arrange
+        when(passwordEncoder.encode(any())).thenThrow(new ServiceUnavailableException("Password hashing is overloaded", 0));
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class,
+            () -> userRegistrationService.registerAll(List.of(request("alice", "alice@example.com"))));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(User.class));
+    }
+
+    private static RegisterRequest request(String username, String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setEmail(email);
+        request.setPassword("password123");
+        return request;
+    }
+}